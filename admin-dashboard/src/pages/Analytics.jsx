@@ -34,21 +34,18 @@ const Analytics = () => {
       const startDateTime = `${dateRange.startDate}T00:00:00`;
       const endDateTime = `${dateRange.endDate}T23:59:59`;
 
-      const [summaryRes, revenueRes, inventoryRes, machineRes, productRes, categoryRes] = await Promise.all([
-        analyticsAPI.getSummary(startDateTime, endDateTime),
-        analyticsAPI.getRevenueData(startDateTime, endDateTime),
-        analyticsAPI.getInventoryTrends(startDateTime, endDateTime),
-        analyticsAPI.getMachinePerformance(startDateTime, endDateTime),
-        analyticsAPI.getProductAnalytics(startDateTime, endDateTime),
-        analyticsAPI.getCategoryBreakdown(startDateTime, endDateTime)
-      ]);
+      const { data } = await analyticsAPI.getDashboard(startDateTime, endDateTime);
 
-      setSummary(summaryRes.data);
-      setRevenueData(revenueRes.data);
-      setInventoryTrends(inventoryRes.data);
-      setMachinePerformance(machineRes.data);
-      setProductAnalytics(productRes.data.slice(0, 10)); // Top 10 products
-      setCategoryBreakdown(categoryRes.data);
+      setSummary(data.summary);
+      setRevenueData(data.revenue || []);
+      setInventoryTrends(data.inventoryTrends || []);
+      setMachinePerformance(data.machinePerformance || []);
+      setProductAnalytics((data.productAnalytics || []).slice(0, 10)); // Top 10 products
+      setCategoryBreakdown(data.categoryBreakdown || []);
+
+      if (data.incompleteSections?.length) {
+        console.warn('Analytics sections not loaded:', data.incompleteSections);
+      }
     } catch (err) {
       console.error('Error fetching analytics:', err);
       setError(err.response?.data?.message || 'Failed to load analytics');
@@ -215,6 +212,7 @@ const Analytics = () => {
                 <th>Restocks</th>
                 <th>Total Cash</th>
                 <th>Avg/Restock</th>
+                <th>Cashless Sales</th>
                 <th>Items Restocked</th>
                 <th>Maintenance</th>
               </tr>
@@ -227,6 +225,7 @@ const Analytics = () => {
                   <td>{machine.restockCount}</td>
                   <td>{formatCurrency(machine.totalCashCollected)}</td>
                   <td>{formatCurrency(machine.averageCashPerRestock)}</td>
+                  <td>{formatCurrency(machine.cashlessRevenue)}</td>
                   <td>{machine.totalItemsRestocked}</td>
                   <td>{machine.maintenanceCount}</td>
                 </tr>
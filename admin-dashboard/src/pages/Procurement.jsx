@@ -6,6 +6,7 @@ const API_BASE_URL = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080
 
 function Procurement() {
   const [batches, setBatches] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [products, setProducts] = useState([]);
   const [vendors, setVendors] = useState([]);
   const [selectedVendor, setSelectedVendor] = useState(null);
@@ -32,10 +33,13 @@ function Procurement() {
     fetchVendors();
   }, []);
 
-  const fetchBatches = async () => {
+  // The list shows batch headers only; items and receipts are loaded when a batch is opened
+  const fetchBatches = async (cursor = null) => {
     try {
-      const response = await procurementAPI.getAll();
-      setBatches(Array.isArray(response.data) ? response.data : []);
+      const response = await procurementAPI.getPage(cursor);
+      const page = Array.isArray(response.data?.items) ? response.data.items : [];
+      setBatches(prev => (cursor ? [...prev, ...page] : page));
+      setNextCursor(response.data?.nextCursor || null);
       setLoading(false);
     } catch (err) {
       setError('Failed to fetch procurement batches');
@@ -148,7 +152,15 @@ function Procurement() {
     return { subtotal, totalHST, total };
   };
 
-  const handleView = async (batch) => {
+  const handleView = async (summary) => {
+    let batch;
+    try {
+      const response = await procurementAPI.getById(summary.id);
+      batch = response.data;
+    } catch (err) {
+      setError('Failed to fetch procurement batch');
+      return;
+    }
     setSelectedBatch(batch);
     setFormData({
       purchaseDate: batch.purchaseDate.slice(0, 16),
@@ -704,6 +716,14 @@ function Procurement() {
               </tbody>
             </table>
 
+            {nextCursor && (
+              <div style={{ textAlign: 'center', marginTop: '15px' }}>
+                <button className="btn btn-secondary" onClick={() => fetchBatches(nextCursor)}>
+                  Load More
+                </button>
+              </div>
+            )}
+
             {batches.length === 0 && (
               <div className="empty-state">
                 <h3>No purchase orders found</h3>
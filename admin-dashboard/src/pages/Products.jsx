@@ -86,7 +86,8 @@ function Products() {
       resetForm();
       fetchProducts();
     } catch (err) {
-      setError('Failed to save product');
+      // A 409 means the product changed since the form was opened, e.g. a receipt landed
+      setError(err.response?.data?.message || 'Failed to save product');
     }
   };
 
@@ -105,6 +106,7 @@ function Products() {
       description: product.description || '',
       barcode: product.barcode || '',
       sku: product.sku || '',
+      version: product.version,
     });
     setViewMode(true);
     setEditMode(false);
@@ -131,6 +133,7 @@ function Products() {
       description: product.description || '',
       barcode: product.barcode || '',
       sku: product.sku || '',
+      version: product.version,
     });
     setShowForm(true);
   };
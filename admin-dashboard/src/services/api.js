@@ -93,6 +93,9 @@ export const auditLogsAPI = {
 // Procurement Batches
 export const procurementAPI = {
   getAll: () => api.get('/procurement-batches'),
+  getPage: (cursor, limit = 50) => api.get('/procurement-batches/page', {
+    params: { cursor, limit }
+  }),
   getById: (id) => api.get(`/procurement-batches/${id}`),
   getBySupplier: (supplier) => api.get(`/procurement-batches/supplier/${supplier}`),
   getAllSuppliers: () => api.get('/procurement-batches/suppliers'),
@@ -148,6 +151,12 @@ export const analyticsAPI = {
     if (endDate) params.append('endDate', endDate);
     return api.get(`/analytics/category-breakdown?${params}`);
   },
+  getDashboard: (startDate, endDate) => {
+    const params = new URLSearchParams();
+    if (startDate) params.append('startDate', startDate);
+    if (endDate) params.append('endDate', endDate);
+    return api.get(`/analytics/dashboard?${params}`);
+  },
 };
 
 // Vendors
@@ -207,6 +216,9 @@ export const machineModelsAPI = {
 // Sales Records
 export const salesAPI = {
   getAll: () => api.get('/sales'),
+  getPage: (cursor, limit = 50, summary = false) => api.get('/sales/page', {
+    params: { cursor, limit, summary }
+  }),
   getById: (id) => api.get(`/sales/${id}`),
   getByDateRange: (startDate, endDate) => api.get('/sales/date-range', {
     params: { startDate, endDate }
@@ -0,0 +1,77 @@
+package com.vending.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The string-based settlement line parsing that SettlementCsvTokenizer replaced, kept as the benchmark baseline
+ */
+final class LegacySettlementCsvParser {
+
+    private static final DateTimeFormatter CSV_DATE_FORMATTER = DateTimeFormatter.ofPattern("M/d/yyyy");
+
+    private LegacySettlementCsvParser() {
+    }
+
+    static ParsedRow parse(String line) {
+        if (line.startsWith("\uFEFF")) {
+            line = line.substring(1);
+        }
+        List<String> values = parseCSVValues(line);
+        if (values.size() < 7) {
+            throw new IllegalArgumentException("Invalid CSV line format");
+        }
+        return new ParsedRow(
+                LocalDate.parse(values.get(0).replace("\"", ""), CSV_DATE_FORMATTER),
+                parseInteger(values.get(1)),
+                parseInteger(values.get(2)),
+                parseInteger(values.get(3)),
+                parseInteger(values.get(4)),
+                parseAmount(values.get(5)),
+                parseAmount(values.get(6)));
+    }
+
+    private static List<String> parseCSVValues(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder currentValue = new StringBuilder();
+        boolean insideQuotes = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (c == '"') {
+                insideQuotes = !insideQuotes;
+                currentValue.append(c);
+            } else if (c == ',' && !insideQuotes) {
+                values.add(currentValue.toString().trim());
+                currentValue = new StringBuilder();
+            } else {
+                currentValue.append(c);
+            }
+        }
+        values.add(currentValue.toString().trim());
+
+        return values;
+    }
+
+    private static Integer parseInteger(String value) {
+        try {
+            value = value.replace("\"", "").trim();
+            return value.isEmpty() ? 0 : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static BigDecimal parseAmount(String value) {
+        try {
+            value = value.replace("\"", "").replace("$", "").replace(",", "").trim();
+            return value.isEmpty() ? BigDecimal.ZERO : new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return BigDecimal.ZERO;
+        }
+    }
+}
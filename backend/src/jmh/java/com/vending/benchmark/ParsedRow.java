@@ -0,0 +1,8 @@
+package com.vending.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+record ParsedRow(LocalDate settlementDate, int numberOfBatches, int numberCompleted, int numberSur,
+                 int numberIncomplete, BigDecimal approvedAmount, BigDecimal feeAmount) {
+}
@@ -0,0 +1,104 @@
+package com.vending.benchmark;
+
+import com.vending.service.settlement.SettlementCsvTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a synthetic settlement export with the old string-based parser and with {@link SettlementCsvTokenizer}.
+ * Run with {@code -prof gc} to compare allocation per operation as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 2, jvmArgsAppend = "-Xmx1g")
+public class SettlementCsvParserBenchmark {
+
+    private static final String HEADER = "Settlement Date,# of Batches,# Completed,# Sur,# Incomplete,Approved Amount,Fee Amount";
+
+    @Param("1000000")
+    public int lines;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        file = Files.createTempFile("settlement-benchmark-", ".csv");
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (int i = 0; i < lines; i++) {
+                int cents = random.nextInt(500_000_00);
+                writer.write(String.format("\"%d/%d/%d\",%d,%d,%d,%d,\"$%,d.%02d\",$%d.%02d",
+                        random.nextInt(12) + 1, random.nextInt(28) + 1, 2020 + random.nextInt(6),
+                        random.nextInt(50), random.nextInt(50), random.nextInt(3), random.nextInt(3),
+                        cents / 100, cents % 100, random.nextInt(20), random.nextInt(100)));
+                writer.newLine();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    blackhole.consume(LegacySettlementCsvParser.parse(line));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void tokenizer(Blackhole blackhole) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            SettlementCsvTokenizer tokenizer = new SettlementCsvTokenizer(reader);
+            tokenizer.next();
+            while (tokenizer.next()) {
+                if (!tokenizer.isBlank()) {
+                    blackhole.consume(new ParsedRow(
+                            tokenizer.dateField(0),
+                            tokenizer.intField(1),
+                            tokenizer.intField(2),
+                            tokenizer.intField(3),
+                            tokenizer.intField(4),
+                            tokenizer.amountField(5),
+                            tokenizer.amountField(6)));
+                }
+            }
+        }
+    }
+}
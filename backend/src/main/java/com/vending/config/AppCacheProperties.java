@@ -0,0 +1,25 @@
+package com.vending.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.cache")
+public class AppCacheProperties {
+    private Spec defaults = new Spec();
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    @Data
+    public static class Spec {
+        private Long maximumSize;
+        private Long maximumWeight;  // Collections weigh one per element, other values weigh one
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+    }
+}
@@ -1,28 +1,67 @@
 package com.vending.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bounded, expiring Caffeine caches. Limits come from {@code app.cache.caches.<name>},
+ * falling back to {@code app.cache.defaults}. Statistics are recorded so Actuator
+ * publishes hit/miss/eviction metrics as {@code cache.*}.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    private static final List<String> CACHE_NAMES = List.of(
+            "products",
+            "vendingMachines",
+            "productPrices",
+            "vendors",
+            "analytics-days",
+            "analytics-jobs",
+            "sales-import-jobs"
+    );
+
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(
-                "products",
-                "vendingMachines",
-                "productPrices",
-                "vendors",
-                "analytics-summary",
-                "analytics-revenue",
-                "analytics-inventory",
-                "analytics-machines",
-                "analytics-products",
-                "analytics-categories"
-        );
+    public CacheManager cacheManager(AppCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Fixed set of caches: an unknown cache name fails instead of creating an unbounded one
+        cacheManager.setCacheNames(List.of());
+
+        for (String name : CACHE_NAMES) {
+            cacheManager.registerCustomCache(name, buildCache(specFor(properties, name)));
+        }
+        return cacheManager;
+    }
+
+    private static AppCacheProperties.Spec specFor(AppCacheProperties properties, String name) {
+        return properties.getCaches().getOrDefault(name, properties.getDefaults());
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> buildCache(AppCacheProperties.Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+
+        if (spec.getMaximumWeight() != null) {
+            builder.maximumWeight(spec.getMaximumWeight())
+                    .weigher((key, value) -> value instanceof Collection<?> collection
+                            ? Math.max(1, collection.size())
+                            : 1);
+        } else if (spec.getMaximumSize() != null) {
+            builder.maximumSize(spec.getMaximumSize());
+        }
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        return builder.build();
     }
 }
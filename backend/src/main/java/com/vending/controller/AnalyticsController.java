@@ -1,9 +1,14 @@
 package com.vending.controller;
 
 import com.vending.dto.analytics.*;
+import com.vending.exception.BadRequestException;
+import com.vending.service.AnalyticsDashboardService;
+import com.vending.service.AnalyticsJobService;
 import com.vending.service.AnalyticsService;
+import com.vending.service.DailyRollupService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -11,8 +16,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/analytics")
@@ -23,6 +30,9 @@ import java.util.List;
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final AnalyticsDashboardService analyticsDashboardService;
+    private final AnalyticsJobService analyticsJobService;
+    private final DailyRollupService dailyRollupService;
 
     @GetMapping("/summary")
     @PreAuthorize("hasRole('ADMIN')")
@@ -131,4 +141,69 @@ public class AnalyticsController {
         log.info("GET /api/analytics/category-breakdown - Date range: {} to {}", startDate, endDate);
         return ResponseEntity.ok(analyticsService.getCategoryBreakdown(startDate, endDate));
     }
+
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get analytics dashboard", description = "Get all analytics sections in one response, computed concurrently")
+    public ResponseEntity<AnalyticsDashboardDTO> getDashboard(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        if (startDate == null) {
+            startDate = LocalDateTime.now().minusDays(30);
+        }
+        if (endDate == null) {
+            endDate = LocalDateTime.now();
+        }
+
+        log.info("GET /api/analytics/dashboard - Date range: {} to {}", startDate, endDate);
+        return ResponseEntity.ok(analyticsDashboardService.getDashboard(startDate, endDate));
+    }
+
+    @PostMapping("/jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Submit analytics job", description = "Run a report in the background; resubmitting a report that is still running, " +
+        "or that completed over a range ending before today, returns the existing job. Responds 503 with Retry-After when the job queue is full")
+    public ResponseEntity<AnalyticsJobDTO> submitJob(@Valid @RequestBody AnalyticsJobRequest request) {
+        log.info("POST /api/analytics/jobs - {}", request);
+        return ResponseEntity.accepted().body(analyticsJobService.submit(request));
+    }
+
+    @GetMapping("/jobs/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get analytics job", description = "Get the status and progress of a background analytics job")
+    public ResponseEntity<AnalyticsJobDTO> getJob(@PathVariable UUID id) {
+        return ResponseEntity.ok(analyticsJobService.getJob(id));
+    }
+
+    @GetMapping("/jobs/{id}/result")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get analytics job result", description = "Get the report produced by a completed analytics job")
+    public ResponseEntity<Object> getJobResult(@PathVariable UUID id) {
+        return ResponseEntity.ok(analyticsJobService.getResult(id));
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Cancel analytics job", description = "Cancel a queued or running analytics job")
+    public ResponseEntity<AnalyticsJobDTO> cancelJob(@PathVariable UUID id) {
+        log.info("DELETE /api/analytics/jobs/{}", id);
+        return ResponseEntity.ok(analyticsJobService.cancel(id));
+    }
+
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild daily rollups", description = "Recompute the daily analytics rollups for a date range in the background")
+    public ResponseEntity<Void> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        if (endDate.isBefore(startDate)) {
+            throw new BadRequestException("End date must not be before start date");
+        }
+
+        log.info("POST /api/analytics/rollups/rebuild - Date range: {} to {}", startDate, endDate);
+        dailyRollupService.rebuild(startDate, endDate);
+        return ResponseEntity.accepted().build();
+    }
 }
@@ -0,0 +1,60 @@
+package com.vending.controller;
+
+import com.vending.dto.StockLevelDTO;
+import com.vending.dto.StockMovementDTO;
+import com.vending.dto.StockMovementRequest;
+import com.vending.service.StockLedgerService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/inventory")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Inventory", description = "Stock movement ledger and point-in-time stock levels")
+public class InventoryController {
+
+    private final StockLedgerService stockLedgerService;
+
+    @PostMapping("/movements")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Record stock movement", description = "Record a restock to a machine, an expiry write-off or a stock adjustment")
+    public ResponseEntity<StockMovementDTO> recordMovement(@Valid @RequestBody StockMovementRequest request) {
+        log.info("POST /api/inventory/movements - {}", request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(stockLedgerService.recordMovement(request));
+    }
+
+    @GetMapping("/products/{productId}/movements")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Get stock movements", description = "Get a product's most recent stock movements, newest first")
+    public ResponseEntity<List<StockMovementDTO>> getMovements(
+            @PathVariable UUID productId,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(stockLedgerService.getMovements(productId, limit));
+    }
+
+    @GetMapping("/products/{productId}/stock")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Get stock at a point in time", description = "Get a product's stock as of the given time, or now. " +
+        "Times before the stock ledger began recording are rejected")
+    public ResponseEntity<StockLevelDTO> getStockAt(
+            @PathVariable UUID productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        if (at == null) {
+            at = LocalDateTime.now();
+        }
+        return ResponseEntity.ok(stockLedgerService.getStockAt(productId, at));
+    }
+}
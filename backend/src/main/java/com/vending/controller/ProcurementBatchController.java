@@ -1,6 +1,8 @@
 package com.vending.controller;
 
+import com.vending.dto.CursorPageDTO;
 import com.vending.dto.ProcurementBatchDto;
+import com.vending.repository.projection.ProcurementBatchSummary;
 import com.vending.service.ProcurementBatchService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +28,16 @@ public class ProcurementBatchController {
         return ResponseEntity.ok(procurementBatchService.getAllBatches());
     }
 
+    // Security: Read access for ADMIN and MANAGER roles
+    // Newest first; pass the returned nextCursor as cursor for the next page
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<ProcurementBatchSummary>> getBatchSummaryPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ProcurementBatchService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(procurementBatchService.getBatchSummaryPage(cursor, limit));
+    }
+
     // Security: Read access for ADMIN and MANAGER roles
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     @GetMapping("/{id}")
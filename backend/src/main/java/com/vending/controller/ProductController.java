@@ -2,13 +2,9 @@ package com.vending.controller;
 
 import com.vending.dto.ProductDto;
 import com.vending.entity.Product;
-import com.vending.entity.ProductBrand;
-import com.vending.entity.ProductCategory;
-import com.vending.exception.DuplicateResourceException;
 import com.vending.exception.ResourceNotFoundException;
-import com.vending.repository.ProductBrandRepository;
-import com.vending.repository.ProductCategoryRepository;
 import com.vending.repository.ProductRepository;
+import com.vending.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -34,10 +30,7 @@ public class ProductController {
     private ProductRepository productRepository;
 
     @Autowired
-    private ProductCategoryRepository productCategoryRepository;
-
-    @Autowired
-    private ProductBrandRepository productBrandRepository;
+    private ProductService productService;
 
     // Security: Read access for ADMIN and MANAGER roles
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
@@ -171,109 +164,14 @@ public class ProductController {
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     @PostMapping
     public ResponseEntity<Product> createProduct(@Valid @RequestBody ProductDto productDto) {
-        // Check for duplicate name
-        if (productDto.name() != null && productRepository.findByName(productDto.name()).isPresent()) {
-            throw new DuplicateResourceException("Product", "name", productDto.name());
-        }
-        // Check for duplicate barcode
-        if (productDto.barcode() != null && !productDto.barcode().isEmpty()
-                && productRepository.findByBarcode(productDto.barcode()).isPresent()) {
-            throw new DuplicateResourceException("Product", "barcode", productDto.barcode());
-        }
-        // Check for duplicate SKU
-        if (productDto.sku() != null && !productDto.sku().isEmpty()
-                && productRepository.findBySku(productDto.sku()).isPresent()) {
-            throw new DuplicateResourceException("Product", "sku", productDto.sku());
-        }
-
-        // Create Product entity from DTO
-        Product product = new Product();
-        product.setName(productDto.name());
-        product.setCategory(productDto.category());
-        product.setUnitSize(productDto.unitSize());
-        product.setCurrentStock(productDto.currentStock());
-        product.setMinimumStock(productDto.minimumStock());
-        product.setHstExempt(productDto.hstExempt());
-        product.setBasePrice(productDto.basePrice());
-        product.setDescription(productDto.description());
-        product.setBarcode(productDto.barcode());
-        product.setSku(productDto.sku());
-        product.setActive(productDto.active());
-
-        // Handle foreign key relationships
-        if (productDto.categoryId() != null) {
-            ProductCategory category = productCategoryRepository.findById(productDto.categoryId())
-                .orElseThrow(() -> new ResourceNotFoundException("ProductCategory", "id", productDto.categoryId()));
-            product.setProductCategory(category);
-        }
-
-        if (productDto.brandId() != null) {
-            ProductBrand brand = productBrandRepository.findById(productDto.brandId())
-                .orElseThrow(() -> new ResourceNotFoundException("ProductBrand", "id", productDto.brandId()));
-            product.setProductBrand(brand);
-        }
-
-        Product saved = productRepository.save(product);
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        return ResponseEntity.status(HttpStatus.CREATED).body(productService.createProduct(productDto));
     }
 
     // Security: Write access for ADMIN and MANAGER roles
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(@PathVariable UUID id, @Valid @RequestBody ProductDto productDto) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
-
-        // Check for duplicate name (excluding current product)
-        if (productDto.name() != null && !productDto.name().equals(product.getName())) {
-            productRepository.findByName(productDto.name()).ifPresent(p -> {
-                throw new DuplicateResourceException("Product", "name", productDto.name());
-            });
-        }
-
-        // Check for duplicate barcode (excluding current product)
-        if (productDto.barcode() != null && !productDto.barcode().isEmpty()
-                && !productDto.barcode().equals(product.getBarcode())) {
-            productRepository.findByBarcode(productDto.barcode()).ifPresent(p -> {
-                throw new DuplicateResourceException("Product", "barcode", productDto.barcode());
-            });
-        }
-
-        // Check for duplicate SKU (excluding current product)
-        if (productDto.sku() != null && !productDto.sku().isEmpty()
-                && !productDto.sku().equals(product.getSku())) {
-            productRepository.findBySku(productDto.sku()).ifPresent(p -> {
-                throw new DuplicateResourceException("Product", "sku", productDto.sku());
-            });
-        }
-
-        // Update basic fields
-        if (productDto.name() != null) product.setName(productDto.name());
-        if (productDto.category() != null) product.setCategory(productDto.category());
-        if (productDto.unitSize() != null) product.setUnitSize(productDto.unitSize());
-        if (productDto.basePrice() != null) product.setBasePrice(productDto.basePrice());
-        if (productDto.currentStock() != null) product.setCurrentStock(productDto.currentStock());
-        if (productDto.minimumStock() != null) product.setMinimumStock(productDto.minimumStock());
-        if (productDto.description() != null) product.setDescription(productDto.description());
-        if (productDto.barcode() != null) product.setBarcode(productDto.barcode());
-        if (productDto.sku() != null) product.setSku(productDto.sku());
-        product.setActive(productDto.active());
-        product.setHstExempt(productDto.hstExempt());
-
-        // Handle foreign key relationships
-        if (productDto.categoryId() != null) {
-            ProductCategory category = productCategoryRepository.findById(productDto.categoryId())
-                .orElseThrow(() -> new ResourceNotFoundException("ProductCategory", "id", productDto.categoryId()));
-            product.setProductCategory(category);
-        }
-
-        if (productDto.brandId() != null) {
-            ProductBrand brand = productBrandRepository.findById(productDto.brandId())
-                .orElseThrow(() -> new ResourceNotFoundException("ProductBrand", "id", productDto.brandId()));
-            product.setProductBrand(brand);
-        }
-
-        return ResponseEntity.ok(productRepository.save(product));
+        return ResponseEntity.ok(productService.updateProduct(id, productDto));
     }
 
     // Security: Write access for ADMIN and MANAGER roles
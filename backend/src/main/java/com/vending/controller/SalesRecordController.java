@@ -1,6 +1,12 @@
 package com.vending.controller;
 
+import com.vending.dto.CursorPageDTO;
+import com.vending.dto.SalesImportJobDTO;
+import com.vending.dto.SalesImportSummaryDTO;
 import com.vending.dto.SalesRecordDTO;
+import com.vending.exception.BadRequestException;
+import com.vending.exception.SalesImportException;
+import com.vending.service.SalesImportJobService;
 import com.vending.service.SalesRecordService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -8,11 +14,14 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -26,6 +35,7 @@ import java.util.UUID;
 public class SalesRecordController {
 
     private final SalesRecordService salesRecordService;
+    private final SalesImportJobService salesImportJobService;
 
     @GetMapping
     @Operation(summary = "Get all sales records")
@@ -33,6 +43,18 @@ public class SalesRecordController {
         return ResponseEntity.ok(salesRecordService.getAllSalesRecords());
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Get a page of sales records",
+            description = "Newest first. Pass the returned nextCursor as cursor for the next page; summary=true returns only the listed columns")
+    public ResponseEntity<CursorPageDTO<?>> getSalesRecordPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + SalesRecordService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(defaultValue = "false") boolean summary) {
+        return ResponseEntity.ok(summary
+                ? salesRecordService.getSalesRecordSummaryPage(cursor, limit)
+                : salesRecordService.getSalesRecordPage(cursor, limit));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get sales record by ID")
     public ResponseEntity<SalesRecordDTO> getSalesRecordById(@PathVariable UUID id) {
@@ -54,8 +76,11 @@ public class SalesRecordController {
     }
 
     @PostMapping("/import/csv")
-    @Operation(summary = "Import sales records from CSV file")
-    public ResponseEntity<List<SalesRecordDTO>> importFromCSV(@RequestParam("file") MultipartFile file) {
+    @Operation(summary = "Import sales records from CSV file", description = "Rows are saved in chunks of 1000, each in its own " +
+        "transaction, so an import is not atomic: if it fails, the chunks saved so far stay imported and the response " +
+        "(400 for an unreadable file, 500 otherwise) holds their counts, the first line not saved and the error. " +
+        "A failed file is not recorded as imported and can be uploaded again")
+    public ResponseEntity<SalesImportSummaryDTO> importFromCSV(@RequestParam("file") MultipartFile file) {
         try {
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest().build();
@@ -66,8 +91,10 @@ public class SalesRecordController {
                 return ResponseEntity.badRequest().build();
             }
 
-            List<SalesRecordDTO> records = salesRecordService.importFromCSV(file);
-            return ResponseEntity.status(HttpStatus.CREATED).body(records);
+            SalesImportSummaryDTO summary = salesRecordService.importFromCSV(file);
+            return ResponseEntity.status(HttpStatus.CREATED).body(summary);
+        } catch (SalesImportException e) {
+            return importFailed(e);
         } catch (Exception e) {
             log.error("Error importing CSV file", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -75,30 +102,64 @@ public class SalesRecordController {
     }
 
     @PostMapping("/import/excel")
-    @Operation(summary = "Import sales records from Excel file")
-    public ResponseEntity<List<SalesRecordDTO>> importFromExcel(@RequestParam("file") MultipartFile file) {
+    @Operation(summary = "Import sales records from Excel file", description = "Accepts .xlsx only. Saved in chunks like CSV imports, so not " +
+        "atomic either: a failed import keeps the chunks saved so far and responds with their summary and the first row not saved")
+    public ResponseEntity<SalesImportSummaryDTO> importFromExcel(@RequestParam("file") MultipartFile file) {
         try {
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest().build();
             }
 
             String fileName = file.getOriginalFilename();
-            if (fileName == null || !(fileName.toLowerCase().endsWith(".xlsx") || fileName.toLowerCase().endsWith(".xls"))) {
+            if (fileName == null || !fileName.toLowerCase().endsWith(".xlsx")) {
                 return ResponseEntity.badRequest().build();
             }
 
-            List<SalesRecordDTO> records = salesRecordService.importFromExcel(file);
-            return ResponseEntity.status(HttpStatus.CREATED).body(records);
+            SalesImportSummaryDTO summary = salesRecordService.importFromExcel(file);
+            return ResponseEntity.status(HttpStatus.CREATED).body(summary);
+        } catch (SalesImportException e) {
+            return importFailed(e);
         } catch (Exception e) {
             log.error("Error importing Excel file", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @PostMapping("/import/jobs")
+    @Operation(summary = "Queue a sales file import", description = "Spool a CSV or XLSX file and import it in the background. " +
+        "Responds 503 with Retry-After when the import queue is full")
+    public ResponseEntity<SalesImportJobDTO> submitImportJob(@RequestParam("file") MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new BadRequestException("File is empty");
+        }
+        return ResponseEntity.accepted().body(salesImportJobService.submit(file));
+    }
+
+    @GetMapping("/import/jobs/{id}")
+    @Operation(summary = "Get sales import job", description = "Get the status and progress of a background import")
+    public ResponseEntity<SalesImportJobDTO> getImportJob(@PathVariable UUID id) {
+        return ResponseEntity.ok(salesImportJobService.getJob(id));
+    }
+
+    @GetMapping(value = "/import/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream sales import progress", description = "Server-sent events with the job state after every chunk, ending when the job finishes")
+    public SseEmitter streamImportJob(@PathVariable UUID id) {
+        return salesImportJobService.subscribe(id);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete sales record")
     public ResponseEntity<Void> deleteSalesRecord(@PathVariable UUID id) {
         salesRecordService.deleteSalesRecord(id);
         return ResponseEntity.noContent().build();
     }
+
+    // A file that can't be read is the client's problem; anything else failed on our side
+    private ResponseEntity<SalesImportSummaryDTO> importFailed(SalesImportException e) {
+        Throwable cause = e.getCause();
+        HttpStatus status = cause instanceof IllegalArgumentException || cause instanceof BadRequestException
+                ? HttpStatus.BAD_REQUEST
+                : HttpStatus.INTERNAL_SERVER_ERROR;
+        return ResponseEntity.status(status).body(e.getSummary());
+    }
 }
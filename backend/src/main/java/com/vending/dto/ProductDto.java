@@ -27,5 +27,7 @@ public record ProductDto(
     boolean active,
     boolean lowStock,
     LocalDateTime createdAt,
-    LocalDateTime updatedAt
+    LocalDateTime updatedAt,
+    // Version the client read; an update carrying a stale one is rejected
+    Long version
 ) {}
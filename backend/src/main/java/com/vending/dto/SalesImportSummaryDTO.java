@@ -0,0 +1,36 @@
+package com.vending.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesImportSummaryDTO {
+    private String fileName;
+    private String source;
+    private String format;  // Settlement layout detected from the header row
+    private int totalRows;
+    private int importedCount;
+    private int updatedCount;
+    private int unchangedCount;
+    private int rejectedCount;
+
+    // True when the same file content was imported before and nothing was written
+    private boolean alreadyImported;
+
+    // Line (or row) numbers of rejected entries, capped so large files keep a small response
+    @Builder.Default
+    private List<Integer> rejectedLines = new ArrayList<>();
+
+    // Set when the import stopped part-way: the first line (or row) not saved, and why.
+    // The counts above cover only the chunks saved before it.
+    private Integer failedAtLine;
+    private String error;
+}
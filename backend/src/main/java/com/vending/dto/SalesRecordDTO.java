@@ -18,6 +18,9 @@ public class SalesRecordDTO {
     private UUID id;
     private LocalDate settlementDate;
     private String source;
+    private String format;
+    private String posSerialNumber;
+    private UUID machineId;
     private Integer numberOfBatches;
     private Integer numberCompleted;
     private Integer numberSur;
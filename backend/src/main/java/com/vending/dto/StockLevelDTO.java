@@ -0,0 +1,21 @@
+package com.vending.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLevelDTO {
+    private UUID productId;
+    private LocalDateTime at;
+    private Integer stock;
+    private LocalDate snapshotDate;  // Snapshot the level was computed from; null if none precedes it
+}
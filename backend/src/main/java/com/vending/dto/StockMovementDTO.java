@@ -0,0 +1,28 @@
+package com.vending.dto;
+
+import com.vending.entity.StockMovement;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementDTO {
+    private UUID id;
+    private UUID productId;
+    private StockMovement.MovementType movementType;
+    private Integer quantity;  // Signed: positive into the warehouse, negative out of it
+    private BigDecimal unitCost;
+    private LocalDateTime occurredAt;
+    private UUID referenceId;
+    private String notes;
+    private String performedBy;
+    private LocalDateTime createdAt;
+}
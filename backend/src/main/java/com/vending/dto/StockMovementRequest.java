@@ -0,0 +1,32 @@
+package com.vending.dto;
+
+import com.vending.entity.StockMovement;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A manual stock movement. Quantity is the units taken out for RESTOCK and EXPIRY_WRITE_OFF,
+ * and the signed change for ADJUSTMENT. Receipts are recorded from procurement batches.
+ */
+@Builder
+public record StockMovementRequest(
+    @NotNull(message = "Product is required")
+    UUID productId,
+
+    @NotNull(message = "Movement type is required")
+    StockMovement.MovementType movementType,
+
+    @NotNull(message = "Quantity is required")
+    Integer quantity,
+
+    LocalDateTime occurredAt,  // Defaults to now
+
+    UUID referenceId,
+
+    @Size(max = 500, message = "Notes must not exceed 500 characters")
+    String notes
+) {}
@@ -0,0 +1,26 @@
+package com.vending.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsDashboardDTO {
+    private AnalyticsSummaryDTO summary;
+    private List<RevenueDataDTO> revenue;
+    private List<InventoryTrendDTO> inventoryTrends;
+    private List<MachinePerformanceDTO> machinePerformance;
+    private List<ProductAnalyticsDTO> productAnalytics;
+    private List<CategoryBreakdownDTO> categoryBreakdown;
+
+    // Sections that failed or missed the deadline; their fields are null
+    @Builder.Default
+    private List<String> incompleteSections = new ArrayList<>();
+}
@@ -0,0 +1,34 @@
+package com.vending.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsJobDTO {
+    private UUID id;
+    private AnalyticsJobRequest.ReportType reportType;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private JobStatus status;
+    private Integer progress;  // Percent complete, 0-100
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private String error;
+
+    public enum JobStatus {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+}
@@ -0,0 +1,28 @@
+package com.vending.dto.analytics;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Builder
+public record AnalyticsJobRequest(
+    @NotNull(message = "Report type is required")
+    ReportType reportType,
+
+    @NotNull(message = "Start date is required")
+    LocalDateTime startDate,
+
+    @NotNull(message = "End date is required")
+    LocalDateTime endDate
+) {
+    public enum ReportType {
+        SUMMARY,
+        REVENUE,
+        INVENTORY_TRENDS,
+        MACHINE_PERFORMANCE,
+        PRODUCT_ANALYTICS,
+        CATEGORY_BREAKDOWN,
+        DASHBOARD
+    }
+}
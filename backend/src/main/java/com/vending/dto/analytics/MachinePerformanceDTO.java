@@ -22,4 +22,5 @@ public class MachinePerformanceDTO {
     private BigDecimal averageCashPerRestock;
     private Integer totalItemsRestocked;
     private Integer maintenanceCount;
+    private BigDecimal cashlessRevenue;  // Approved card sales from settlement lines linked to the machine
 }
@@ -21,6 +21,9 @@ public class ProductAnalyticsDTO {
     private Integer totalProcured;
     private BigDecimal totalProcurementCost;
     private BigDecimal averageUnitCost;
+    private BigDecimal movingAverageCost;    // Current cost of one unit in stock
+    private BigDecimal costOfGoodsRestocked; // Stock restocked into machines, at cost
+    private BigDecimal unitMargin;
     private Integer minimumStock;
     private Boolean isLowStock;
 }
@@ -0,0 +1,75 @@
+package com.vending.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Restocking activity for one machine on one day. Maintained by {@code DailyRollupService}.
+ */
+@Entity
+@Table(name = "daily_machine_metrics", indexes = {
+    @Index(name = "idx_dmm_machine_date", columnList = "machine_id, metric_date")
+})
+@IdClass(DailyMachineMetric.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyMachineMetric {
+
+    @Id
+    @Column(name = "metric_date")
+    private LocalDate metricDate;
+
+    @Id
+    @Column(name = "machine_id")
+    private UUID machineId;
+
+    @Column(name = "restock_count", nullable = false)
+    @Builder.Default
+    private Integer restockCount = 0;
+
+    @Column(name = "cash_collected", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal cashCollected = BigDecimal.ZERO;
+
+    @Column(name = "items_restocked", nullable = false)
+    @Builder.Default
+    private Integer itemsRestocked = 0;
+
+    @Column(name = "maintenance_count", nullable = false)
+    @Builder.Default
+    private Integer maintenanceCount = 0;
+
+    @Column(name = "total_products_sum", nullable = false)
+    @Builder.Default
+    private Integer totalProductsSum = 0;
+
+    @Column(name = "low_stock_sum", nullable = false)
+    @Builder.Default
+    private Integer lowStockSum = 0;
+
+    @Column(name = "out_of_stock_sum", nullable = false)
+    @Builder.Default
+    private Integer outOfStockSum = 0;
+
+    @Column(name = "cashless_revenue", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal cashlessRevenue = BigDecimal.ZERO;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private LocalDate metricDate;
+        private UUID machineId;
+    }
+}
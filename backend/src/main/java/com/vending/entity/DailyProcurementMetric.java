@@ -0,0 +1,40 @@
+package com.vending.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Procurement totals for one purchase day. Maintained by {@code DailyRollupService}.
+ */
+@Entity
+@Table(name = "daily_procurement_metrics")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyProcurementMetric {
+
+    @Id
+    @Column(name = "metric_date")
+    private LocalDate metricDate;
+
+    @Column(name = "batch_count", nullable = false)
+    @Builder.Default
+    private Integer batchCount = 0;
+
+    @Column(name = "subtotal", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal subtotal = BigDecimal.ZERO;
+
+    @Column(name = "total_hst", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal totalHst = BigDecimal.ZERO;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+}
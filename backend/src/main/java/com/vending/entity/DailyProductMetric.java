@@ -0,0 +1,55 @@
+package com.vending.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Restocked and procured quantities for one product on one day. Maintained by {@code DailyRollupService}.
+ */
+@Entity
+@Table(name = "daily_product_metrics", indexes = {
+    @Index(name = "idx_dpm_product_date", columnList = "product_id, metric_date")
+})
+@IdClass(DailyProductMetric.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyProductMetric {
+
+    @Id
+    @Column(name = "metric_date")
+    private LocalDate metricDate;
+
+    @Id
+    @Column(name = "product_id")
+    private UUID productId;
+
+    @Column(name = "restocked_quantity", nullable = false)
+    @Builder.Default
+    private Integer restockedQuantity = 0;
+
+    @Column(name = "procured_quantity", nullable = false)
+    @Builder.Default
+    private Integer procuredQuantity = 0;
+
+    @Column(name = "procurement_cost", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal procurementCost = BigDecimal.ZERO;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private LocalDate metricDate;
+        private UUID productId;
+    }
+}
@@ -0,0 +1,106 @@
+package com.vending.entity;
+
+import com.vending.service.DailyRollupService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.UUID;
+
+/**
+ * Reports writes of restocking and procurement rows and sales records to {@link DailyRollupService}
+ * so the analytics rollups can be adjusted by what changed. Loading a row only notes the values
+ * needed to undo its old contribution; nothing is reported until a row is actually written.
+ */
+public class DailyRollupListener {
+
+    private final ObjectProvider<DailyRollupService> dailyRollupService;
+
+    public DailyRollupListener(ObjectProvider<DailyRollupService> dailyRollupService) {
+        this.dailyRollupService = dailyRollupService;
+    }
+
+    @PostLoad
+    public void onLoad(Object entity) {
+        if (entity instanceof RestockItem item) {
+            item.setLoadedRestockingLogId(idOf(item.getRestockingLog()));
+        } else if (entity instanceof ProcurementItem item) {
+            item.setLoadedBatchId(idOf(item.getBatch()));
+        } else if (entity instanceof SalesRecord record) {
+            snapshot(record);
+        }
+    }
+
+    // Runs before any SQL of the flush, while the rows still hold their old values
+    @PrePersist
+    @PreUpdate
+    @PreRemove
+    public void beforeChange(Object entity) {
+        if (entity instanceof RestockingLog log) {
+            dailyRollupService.getObject().beforeRestockingLogChange(log.getId());
+        } else if (entity instanceof RestockItem item) {
+            DailyRollupService service = dailyRollupService.getObject();
+            service.beforeRestockingLogChange(idOf(item.getRestockingLog()));
+            service.beforeRestockingLogChange(item.getLoadedRestockingLogId());
+        } else if (entity instanceof ProcurementBatch batch) {
+            dailyRollupService.getObject().beforeProcurementBatchChange(batch.getId());
+        } else if (entity instanceof ProcurementItem item) {
+            DailyRollupService service = dailyRollupService.getObject();
+            service.beforeProcurementBatchChange(idOf(item.getBatch()));
+            service.beforeProcurementBatchChange(item.getLoadedBatchId());
+        }
+    }
+
+    @PostPersist
+    public void afterInsert(Object entity) {
+        if (entity instanceof RestockingLog log) {
+            dailyRollupService.getObject().restockingLogCreated(log.getId());
+        } else if (entity instanceof ProcurementBatch batch) {
+            dailyRollupService.getObject().procurementBatchCreated(batch.getId());
+        } else if (entity instanceof SalesRecord record) {
+            salesRecordWritten(record, false);
+        }
+    }
+
+    @PostUpdate
+    public void afterUpdate(Object entity) {
+        if (entity instanceof SalesRecord record) {
+            salesRecordWritten(record, false);
+        }
+    }
+
+    @PostRemove
+    public void afterRemove(Object entity) {
+        if (entity instanceof SalesRecord record) {
+            salesRecordWritten(record, true);
+        }
+    }
+
+    private void salesRecordWritten(SalesRecord record, boolean deleted) {
+        if (record.getMachineId() == null && record.getLoadedMachineId() == null) {
+            return;
+        }
+        dailyRollupService.getObject().salesRecordWritten(record, deleted);
+        // Later writes in the same session start from what was just written
+        snapshot(record);
+    }
+
+    private static void snapshot(SalesRecord record) {
+        record.setLoadedMachineId(record.getMachineId());
+        record.setLoadedSettlementDate(record.getSettlementDate());
+        record.setLoadedApprovedAmount(record.getApprovedAmount());
+    }
+
+    private static UUID idOf(RestockingLog log) {
+        return log != null ? log.getId() : null;
+    }
+
+    private static UUID idOf(ProcurementBatch batch) {
+        return batch != null ? batch.getId() : null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.vending.entity;
+
+import com.vending.service.PosSerialIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Drops the POS serial index whenever a vending machine is written
+ */
+public class PosSerialIndexListener {
+
+    private final ObjectProvider<PosSerialIndex> posSerialIndex;
+
+    public PosSerialIndexListener(ObjectProvider<PosSerialIndex> posSerialIndex) {
+        this.posSerialIndex = posSerialIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(VendingMachine machine) {
+        posSerialIndex.getObject().invalidate();
+    }
+}
@@ -13,8 +13,9 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(DailyRollupListener.class)
 @Table(name = "procurement_batches", indexes = {
-    @Index(name = "idx_batch_purchase_date", columnList = "purchase_date"),
+    @Index(name = "idx_batch_purchase_date_id", columnList = "purchase_date, id"),
     @Index(name = "idx_batch_supplier", columnList = "supplier")
 })
 @Getter
@@ -73,6 +74,10 @@ public class ProcurementBatch {
     @Builder.Default
     private BigDecimal totalAmount = BigDecimal.ZERO;
 
+    @Column(name = "total_items_count", nullable = false)
+    @Builder.Default
+    private Integer totalItemsCount = 0;
+
     @Column(name = "invoice_number", unique = true)
     private String invoiceNumber;
 
@@ -83,9 +88,12 @@ public class ProcurementBatch {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Totals are persisted and kept current by the item mutators below, so loading a batch
+    // never needs to read its items
     public void addItem(ProcurementItem item) {
         items.add(item);
         item.setBatch(this);
+        item.calculateHst();
         recalculateTotals();
     }
 
@@ -95,6 +103,11 @@ public class ProcurementBatch {
         recalculateTotals();
     }
 
+    public void clearItems() {
+        items.clear();
+        recalculateTotals();
+    }
+
     public void recalculateTotals() {
         this.subtotal = items.stream()
             .map(ProcurementItem::getTotalCost)
@@ -105,15 +118,8 @@ public class ProcurementBatch {
             .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         this.totalAmount = this.subtotal.add(this.totalHst);
-    }
-
-    @PostLoad
-    public void recalculateTotalsAfterLoad() {
-        recalculateTotals();
-    }
 
-    public int getTotalItemsCount() {
-        return items.stream()
+        this.totalItemsCount = items.stream()
             .mapToInt(ProcurementItem::getQuantity)
             .sum();
     }
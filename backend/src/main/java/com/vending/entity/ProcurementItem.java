@@ -10,6 +10,7 @@ import java.math.BigDecimal;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(DailyRollupListener.class)
 @Table(name = "procurement_items", indexes = {
     @Index(name = "idx_procurement_batch", columnList = "batch_id"),
     @Index(name = "idx_procurement_product", columnList = "product_id")
@@ -59,6 +60,10 @@ public class ProcurementItem {
     @Builder.Default
     private boolean hstExempt = false;
 
+    // Batch the row was loaded with, so moving or orphaning it still corrects that batch's rollups
+    @Transient
+    private UUID loadedBatchId;
+
     public BigDecimal getTotalCost() {
         return unitCost.multiply(BigDecimal.valueOf(quantity));
     }
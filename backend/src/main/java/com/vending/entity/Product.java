@@ -8,6 +8,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -54,9 +55,10 @@ public class Product {
     @Column(name = "unit_size")
     private String unitSize;
 
+    // Running sum of the product's stock movements, written only by StockLedgerService
     @NotNull(message = "Current stock is required")
     @Min(value = 0, message = "Current stock cannot be negative")
-    @Column(name = "current_stock", nullable = false)
+    @Column(name = "current_stock", nullable = false, updatable = false)
     @Builder.Default
     private Integer currentStock = 0;
 
@@ -65,6 +67,11 @@ public class Product {
     @Builder.Default
     private Integer minimumStock = 10;
 
+    // Moving-average cost of one unit in stock, written only by StockLedgerService on receipts
+    @Column(name = "average_cost", nullable = false, precision = 12, scale = 4, updatable = false)
+    @Builder.Default
+    private BigDecimal averageCost = BigDecimal.ZERO;
+
     @Column(name = "hst_exempt", nullable = false)
     @Builder.Default
     private boolean hstExempt = false;
@@ -90,6 +97,12 @@ public class Product {
     @Builder.Default
     private boolean active = true;
 
+    // Bumped by every product write, including stock movements applied outside JPA
+    @Version
+    @Column(nullable = false)
+    @Builder.Default
+    private Long version = 0L;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -120,14 +133,6 @@ public class Product {
         return currentStock < minimumStock;
     }
 
-    public void addStock(int quantity) {
-        this.currentStock += quantity;
-    }
-
-    public void removeStock(int quantity) {
-        this.currentStock = Math.max(0, this.currentStock - quantity);
-    }
-
     public BigDecimal getPriceForMachine(UUID machineId) {
         return machinePrices.stream()
             .filter(mp -> mp.getMachine().getId().equals(machineId))
@@ -136,12 +141,10 @@ public class Product {
             .orElse(basePrice);
     }
 
-    public BigDecimal getWeightedAverageCost() {
-        return batches.stream()
-            .flatMap(batch -> batch.getItems().stream())
-            .filter(item -> item.getProduct().getId().equals(this.id))
-            .map(item -> item.getUnitCost())
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(Math.max(1, batches.size())), 2, java.math.RoundingMode.HALF_UP);
+    public BigDecimal getUnitMargin() {
+        if (basePrice == null) {
+            return null;
+        }
+        return basePrice.subtract(averageCost).setScale(2, RoundingMode.HALF_UP);
     }
 }
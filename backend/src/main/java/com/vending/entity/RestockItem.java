@@ -8,6 +8,7 @@ import lombok.*;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(DailyRollupListener.class)
 @Table(name = "restock_items", indexes = {
     @Index(name = "idx_restock_log", columnList = "restocking_log_id"),
     @Index(name = "idx_restock_product", columnList = "product_id")
@@ -48,6 +49,10 @@ public class RestockItem {
     @Builder.Default
     private Integer expiredItemsRemoved = 0;
 
+    // Log the row was loaded with, so moving or orphaning it still corrects that log's rollups
+    @Transient
+    private UUID loadedRestockingLogId;
+
     @PrePersist
     public void calculateStockAfter() {
         if (stockBefore != null) {
@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(DailyRollupListener.class)
 @Table(name = "restocking_logs", indexes = {
     @Index(name = "idx_restock_machine", columnList = "machine_id"),
     @Index(name = "idx_restock_timestamp", columnList = "timestamp"),
@@ -0,0 +1,54 @@
+package com.vending.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A sales file that was imported successfully, identified by the SHA-256 of its content
+ * so that uploading the same file again can be skipped.
+ */
+@Entity
+@Table(name = "sales_import_files", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_sales_import_hash", columnNames = "content_hash")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesImportFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "source", nullable = false, length = 50)
+    private String source;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "total_rows", nullable = false)
+    private Integer totalRows;
+
+    @Column(name = "imported_count", nullable = false)
+    private Integer importedCount;
+
+    @Column(name = "updated_count", nullable = false)
+    private Integer updatedCount;
+
+    @Column(name = "unchanged_count", nullable = false)
+    private Integer unchangedCount;
+
+    @Column(name = "rejected_count", nullable = false)
+    private Integer rejectedCount;
+
+    @Column(name = "imported_at", nullable = false)
+    private LocalDateTime importedAt;
+}
@@ -13,7 +13,14 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "sales_records")
+@Table(name = "sales_records", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_sales_settlement_terminal",
+                      columnNames = {"settlement_date", "format", "pos_serial_number"})
+}, indexes = {
+    @Index(name = "idx_sales_settlement_date_id", columnList = "settlement_date, id"),
+    @Index(name = "idx_sales_machine_date", columnList = "machine_id, settlement_date")
+})
+@EntityListeners(DailyRollupListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,6 +42,16 @@ public class SalesRecord {
     @Column(name = "source", nullable = false, length = 50)
     private String source; // 'CSV' or 'EXCEL'
 
+    @Column(name = "format", nullable = false, length = 50)
+    private String format; // Settlement export layout, see SettlementFormat
+
+    @Column(name = "pos_serial_number", nullable = false, length = 100)
+    @Builder.Default
+    private String posSerialNumber = ""; // Empty when the export is not per terminal
+
+    @Column(name = "machine_id", columnDefinition = "BINARY(16)")
+    private UUID machineId; // Machine whose POS serial matched, if any
+
     @Column(name = "number_of_batches")
     private Integer numberOfBatches;
 
@@ -64,6 +81,16 @@ public class SalesRecord {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Values as loaded or last written, so a change can take back what the row counted for before
+    @Transient
+    private UUID loadedMachineId;
+
+    @Transient
+    private LocalDate loadedSettlementDate;
+
+    @Transient
+    private BigDecimal loadedApprovedAmount;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,71 @@
+package com.vending.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One change to a product's warehouse stock. Movements are append-only; corrections are
+ * recorded as further movements. {@code Product.currentStock} is the running sum.
+ */
+@Entity
+@Immutable
+@Table(name = "stock_movements", indexes = {
+    @Index(name = "idx_movement_product_time", columnList = "product_id, occurred_at"),
+    @Index(name = "idx_movement_reference", columnList = "reference_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false, length = 30)
+    private MovementType movementType;
+
+    // Signed change in units: positive into the warehouse, negative out of it
+    @Column(nullable = false)
+    private Integer quantity;
+
+    // Receipts carry their purchase cost; everything else moves at the product's average cost
+    @Column(name = "unit_cost", nullable = false, precision = 12, scale = 4)
+    private BigDecimal unitCost;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    // Procurement batch, restocking log or other record the movement came from
+    @Column(name = "reference_id")
+    private UUID referenceId;
+
+    @Column(length = 500)
+    private String notes;
+
+    @Column(name = "performed_by")
+    private String performedBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum MovementType {
+        RECEIPT,            // Procured stock arriving
+        RESTOCK,            // Stock taken out to fill a machine
+        EXPIRY_WRITE_OFF,   // Expired stock discarded
+        ADJUSTMENT          // Count corrections and opening balances
+    }
+}
@@ -0,0 +1,45 @@
+package com.vending.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * A product's stock at the end of one day, i.e. the sum of its movements before the next
+ * midnight. Written nightly by {@code StockLedgerService} so point-in-time stock only needs
+ * the movements after the nearest snapshot.
+ */
+@Entity
+@Table(name = "stock_snapshots")
+@IdClass(StockSnapshot.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockSnapshot {
+
+    @Id
+    @Column(name = "product_id")
+    private UUID productId;
+
+    @Id
+    @Column(name = "snapshot_date")
+    private LocalDate snapshotDate;
+
+    @Column(nullable = false)
+    private Integer stock;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private UUID productId;
+        private LocalDate snapshotDate;
+    }
+}
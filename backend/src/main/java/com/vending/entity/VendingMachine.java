@@ -16,6 +16,7 @@ import java.util.UUID;
     @Index(name = "idx_machine_location", columnList = "location_address"),
     @Index(name = "idx_machine_brand", columnList = "brand")
 })
+@EntityListeners(PosSerialIndexListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,22 @@
+package com.vending.exception;
+
+import com.vending.dto.SalesImportSummaryDTO;
+
+/**
+ * A sales import stopped part-way. Chunks saved before the failure stay imported; the summary
+ * counts only those and names the first line that was not saved.
+ */
+public class SalesImportException extends RuntimeException {
+
+    private final SalesImportSummaryDTO summary;
+
+    public SalesImportException(SalesImportSummaryDTO summary, Throwable cause) {
+        super("Import of " + summary.getFileName() + " stopped at line " + summary.getFailedAtLine()
+                + ": " + cause.getMessage(), cause);
+        this.summary = summary;
+    }
+
+    public SalesImportSummaryDTO getSummary() {
+        return summary;
+    }
+}
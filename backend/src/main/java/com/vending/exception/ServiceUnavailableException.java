@@ -0,0 +1,19 @@
+package com.vending.exception;
+
+/**
+ * The server has no capacity for the request right now; the client may retry after
+ * {@code retryAfterSeconds}.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,30 @@
+package com.vending.repository;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Conversions for ids stored as BINARY(16), for repositories that write through JDBC
+ */
+final class BinaryUuids {
+
+    // The order MySQL keeps BINARY(16) ids in, so row locks can always be taken in index order
+    static final Comparator<UUID> ORDER = Comparator.comparing(BinaryUuids::toBytes, Arrays::compareUnsigned);
+
+    private BinaryUuids() {
+    }
+
+    static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+
+    static UUID toUuid(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
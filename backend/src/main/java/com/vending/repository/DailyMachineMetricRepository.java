@@ -0,0 +1,65 @@
+package com.vending.repository;
+
+import com.vending.entity.DailyMachineMetric;
+import com.vending.repository.projection.DailyRestockTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailyMachineMetricRepository extends JpaRepository<DailyMachineMetric, DailyMachineMetric.Key>,
+        DailyMetricDeltaRepository {
+
+    List<DailyMachineMetric> findByMetricDateBetween(LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT new com.vending.repository.projection.DailyRestockTotal(" +
+           "m.metricDate, SUM(m.restockCount), SUM(m.cashCollected), SUM(m.itemsRestocked), " +
+           "SUM(m.totalProductsSum), SUM(m.lowStockSum), SUM(m.outOfStockSum)) " +
+           "FROM DailyMachineMetric m " +
+           "WHERE m.metricDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY m.metricDate " +
+           "ORDER BY m.metricDate")
+    List<DailyRestockTotal> sumByDay(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query(value = "DELETE FROM daily_machine_metrics " +
+                   "WHERE metric_date >= :startDate AND metric_date < :endDate", nativeQuery = true)
+    int deleteRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Restocking activity and cashless sales of linked settlement lines, combined per day and machine
+    @Modifying
+    @Query(value = "INSERT INTO daily_machine_metrics (metric_date, machine_id, restock_count, cash_collected, " +
+                   "items_restocked, maintenance_count, total_products_sum, low_stock_sum, out_of_stock_sum, " +
+                   "cashless_revenue) " +
+                   "SELECT d.metric_date, d.machine_id, SUM(d.restock_count), SUM(d.cash_collected), " +
+                   "SUM(d.items_restocked), SUM(d.maintenance_count), SUM(d.total_products_sum), " +
+                   "SUM(d.low_stock_sum), SUM(d.out_of_stock_sum), SUM(d.cashless_revenue) " +
+                   "FROM (" +
+                   "SELECT DATE(rl.timestamp) AS metric_date, rl.machine_id AS machine_id, COUNT(*) AS restock_count, " +
+                   "COALESCE(SUM(rl.cash_collected), 0) AS cash_collected, COALESCE(SUM(t.quantity), 0) AS items_restocked, " +
+                   "SUM(CASE WHEN rl.maintenance_performed THEN 1 ELSE 0 END) AS maintenance_count, " +
+                   "COALESCE(SUM(rl.total_products), 0) AS total_products_sum, " +
+                   "COALESCE(SUM(rl.low_stock_products), 0) AS low_stock_sum, " +
+                   "COALESCE(SUM(rl.out_of_stock_products), 0) AS out_of_stock_sum, 0 AS cashless_revenue " +
+                   "FROM restocking_logs rl " +
+                   "LEFT JOIN (SELECT ri.restocking_log_id, SUM(ri.quantity) AS quantity " +
+                   "FROM restock_items ri JOIN restocking_logs l ON l.id = ri.restocking_log_id " +
+                   "WHERE l.timestamp >= :start AND l.timestamp < :end " +
+                   "GROUP BY ri.restocking_log_id) t ON t.restocking_log_id = rl.id " +
+                   "WHERE rl.timestamp >= :start AND rl.timestamp < :end " +
+                   "GROUP BY DATE(rl.timestamp), rl.machine_id " +
+                   "UNION ALL " +
+                   "SELECT sr.settlement_date, sr.machine_id, 0, 0, 0, 0, 0, 0, 0, COALESCE(SUM(sr.approved_amount), 0) " +
+                   "FROM sales_records sr " +
+                   "WHERE sr.machine_id IS NOT NULL AND sr.settlement_date >= DATE(:start) AND sr.settlement_date < DATE(:end) " +
+                   "GROUP BY sr.settlement_date, sr.machine_id" +
+                   ") d " +
+                   "GROUP BY d.metric_date, d.machine_id", nativeQuery = true)
+    int insertRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,33 @@
+package com.vending.repository;
+
+import java.util.UUID;
+
+/**
+ * Incremental upkeep of the daily_*_metrics rollup tables for {@link DailyMachineMetricRepository}.
+ * A write reads what the rows it touches contribute before and after the change and applies only
+ * the difference, so concurrent writers to the same day add up instead of rebuilding the whole day.
+ */
+public interface DailyMetricDeltaRepository {
+
+    /**
+     * What a restocking log and its items currently add to the machine and product rollups, or
+     * nothing if the log doesn't exist. The rows read stay locked until the transaction ends, so
+     * no other writer can change them between this read and the one after the change.
+     */
+    RollupDeltas lockRestockingLogContribution(UUID logId);
+
+    /**
+     * What a procurement batch and its items currently add to the procurement and product
+     * rollups, or nothing if the batch doesn't exist. Locks the rows read like
+     * {@link #lockRestockingLogContribution}.
+     */
+    RollupDeltas lockProcurementBatchContribution(UUID batchId);
+
+    /**
+     * Add the changes to the rollup rows with one batched
+     * {@code INSERT ... ON DUPLICATE KEY UPDATE column = column + ?} per table, creating rows for
+     * days that have none yet. Rows are written in key order so concurrent writers lock shared
+     * rows in the same order.
+     */
+    void applyDeltas(RollupDeltas deltas);
+}
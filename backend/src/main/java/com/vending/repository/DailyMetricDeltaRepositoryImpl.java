@@ -0,0 +1,163 @@
+package com.vending.repository;
+
+import com.vending.repository.RollupDeltas.MachineDay;
+import com.vending.repository.RollupDeltas.MachineMetrics;
+import com.vending.repository.RollupDeltas.ProcurementMetrics;
+import com.vending.repository.RollupDeltas.ProductDay;
+import com.vending.repository.RollupDeltas.ProductMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class DailyMetricDeltaRepositoryImpl implements DailyMetricDeltaRepository {
+
+    private static final String LOCK_RESTOCKING_LOG_SQL =
+            "SELECT timestamp, machine_id, cash_collected, maintenance_performed, total_products, " +
+            "low_stock_products, out_of_stock_products FROM restocking_logs WHERE id = ? FOR UPDATE";
+
+    private static final String LOCK_RESTOCK_ITEMS_SQL =
+            "SELECT product_id, quantity FROM restock_items WHERE restocking_log_id = ? FOR UPDATE";
+
+    private static final String LOCK_PROCUREMENT_BATCH_SQL =
+            "SELECT purchase_date, subtotal, total_hst, total_amount FROM procurement_batches WHERE id = ? FOR UPDATE";
+
+    private static final String LOCK_PROCUREMENT_ITEMS_SQL =
+            "SELECT product_id, quantity, unit_cost FROM procurement_items WHERE batch_id = ? FOR UPDATE";
+
+    private static final String ADD_MACHINE_METRICS_SQL =
+            "INSERT INTO daily_machine_metrics (metric_date, machine_id, restock_count, cash_collected, " +
+            "items_restocked, maintenance_count, total_products_sum, low_stock_sum, out_of_stock_sum, " +
+            "cashless_revenue) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE restock_count = restock_count + VALUES(restock_count), " +
+            "cash_collected = cash_collected + VALUES(cash_collected), " +
+            "items_restocked = items_restocked + VALUES(items_restocked), " +
+            "maintenance_count = maintenance_count + VALUES(maintenance_count), " +
+            "total_products_sum = total_products_sum + VALUES(total_products_sum), " +
+            "low_stock_sum = low_stock_sum + VALUES(low_stock_sum), " +
+            "out_of_stock_sum = out_of_stock_sum + VALUES(out_of_stock_sum), " +
+            "cashless_revenue = cashless_revenue + VALUES(cashless_revenue)";
+
+    private static final String ADD_PRODUCT_METRICS_SQL =
+            "INSERT INTO daily_product_metrics (metric_date, product_id, restocked_quantity, procured_quantity, " +
+            "procurement_cost) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE restocked_quantity = restocked_quantity + VALUES(restocked_quantity), " +
+            "procured_quantity = procured_quantity + VALUES(procured_quantity), " +
+            "procurement_cost = procurement_cost + VALUES(procurement_cost)";
+
+    private static final String ADD_PROCUREMENT_METRICS_SQL =
+            "INSERT INTO daily_procurement_metrics (metric_date, batch_count, subtotal, total_hst, total_amount) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE batch_count = batch_count + VALUES(batch_count), " +
+            "subtotal = subtotal + VALUES(subtotal), total_hst = total_hst + VALUES(total_hst), " +
+            "total_amount = total_amount + VALUES(total_amount)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public RollupDeltas lockRestockingLogContribution(UUID logId) {
+        RollupDeltas contribution = new RollupDeltas();
+        byte[] id = BinaryUuids.toBytes(logId);
+
+        List<MachineDay> logs = jdbcTemplate.query(LOCK_RESTOCKING_LOG_SQL, (rs, rowNum) -> {
+            MachineDay key = new MachineDay(rs.getTimestamp(1).toLocalDateTime().toLocalDate(),
+                    BinaryUuids.toUuid(rs.getBytes(2)));
+            contribution.add(key, new MachineMetrics(1, orZero(rs.getBigDecimal(3)), 0,
+                    rs.getBoolean(4) ? 1 : 0, rs.getInt(5), rs.getInt(6), rs.getInt(7), BigDecimal.ZERO));
+            return key;
+        }, id);
+        if (logs.isEmpty()) {
+            return contribution;
+        }
+
+        MachineDay log = logs.get(0);
+        jdbcTemplate.query(LOCK_RESTOCK_ITEMS_SQL, (RowCallbackHandler) rs -> {
+            int quantity = rs.getInt(2);
+            contribution.add(log, new MachineMetrics(0, BigDecimal.ZERO, quantity, 0, 0, 0, 0, BigDecimal.ZERO));
+            contribution.add(new ProductDay(log.date(), BinaryUuids.toUuid(rs.getBytes(1))),
+                    new ProductMetrics(quantity, 0, BigDecimal.ZERO));
+        }, id);
+        return contribution;
+    }
+
+    @Override
+    public RollupDeltas lockProcurementBatchContribution(UUID batchId) {
+        RollupDeltas contribution = new RollupDeltas();
+        byte[] id = BinaryUuids.toBytes(batchId);
+
+        Optional<LocalDate> purchaseDay = jdbcTemplate.query(LOCK_PROCUREMENT_BATCH_SQL, (rs, rowNum) -> {
+            LocalDate day = rs.getTimestamp(1).toLocalDateTime().toLocalDate();
+            contribution.add(day, new ProcurementMetrics(1, orZero(rs.getBigDecimal(2)),
+                    orZero(rs.getBigDecimal(3)), orZero(rs.getBigDecimal(4))));
+            return day;
+        }, id).stream().findFirst();
+        if (purchaseDay.isEmpty()) {
+            return contribution;
+        }
+
+        LocalDate day = purchaseDay.get();
+        jdbcTemplate.query(LOCK_PROCUREMENT_ITEMS_SQL, (RowCallbackHandler) rs -> {
+            int quantity = rs.getInt(2);
+            contribution.add(new ProductDay(day, BinaryUuids.toUuid(rs.getBytes(1))),
+                    new ProductMetrics(0, quantity, orZero(rs.getBigDecimal(3)).multiply(BigDecimal.valueOf(quantity))));
+        }, id);
+        return contribution;
+    }
+
+    @Override
+    public void applyDeltas(RollupDeltas deltas) {
+        List<Object[]> machineRows = deltas.machines().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(MachineDay::date)
+                        .thenComparing(MachineDay::machineId, BinaryUuids.ORDER)))
+                .map(entry -> {
+                    MachineMetrics m = entry.getValue();
+                    return new Object[] {Date.valueOf(entry.getKey().date()), BinaryUuids.toBytes(entry.getKey().machineId()),
+                            m.restockCount(), m.cashCollected(), m.itemsRestocked(), m.maintenanceCount(),
+                            m.totalProductsSum(), m.lowStockSum(), m.outOfStockSum(), m.cashlessRevenue()};
+                })
+                .toList();
+
+        List<Object[]> productRows = deltas.products().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(ProductDay::date)
+                        .thenComparing(ProductDay::productId, BinaryUuids.ORDER)))
+                .map(entry -> {
+                    ProductMetrics m = entry.getValue();
+                    return new Object[] {Date.valueOf(entry.getKey().date()), BinaryUuids.toBytes(entry.getKey().productId()),
+                            m.restockedQuantity(), m.procuredQuantity(), m.procurementCost()};
+                })
+                .toList();
+
+        List<Object[]> procurementRows = deltas.procurements().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> {
+                    ProcurementMetrics m = entry.getValue();
+                    return new Object[] {Date.valueOf(entry.getKey()), m.batchCount(), m.subtotal(),
+                            m.totalHst(), m.totalAmount()};
+                })
+                .toList();
+
+        // Tables in a fixed order, like the rows within them
+        if (!machineRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_MACHINE_METRICS_SQL, machineRows);
+        }
+        if (!productRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_PRODUCT_METRICS_SQL, productRows);
+        }
+        if (!procurementRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_PROCUREMENT_METRICS_SQL, procurementRows);
+        }
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,32 @@
+package com.vending.repository;
+
+import com.vending.entity.DailyProcurementMetric;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailyProcurementMetricRepository extends JpaRepository<DailyProcurementMetric, LocalDate> {
+
+    List<DailyProcurementMetric> findByMetricDateBetweenOrderByMetricDate(LocalDate startDate, LocalDate endDate);
+
+    @Modifying
+    @Query(value = "DELETE FROM daily_procurement_metrics " +
+                   "WHERE metric_date >= :startDate AND metric_date < :endDate", nativeQuery = true)
+    int deleteRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query(value = "INSERT INTO daily_procurement_metrics (metric_date, batch_count, subtotal, total_hst, total_amount) " +
+                   "SELECT DATE(pb.purchase_date), COUNT(*), COALESCE(SUM(pb.subtotal), 0), " +
+                   "COALESCE(SUM(pb.total_hst), 0), COALESCE(SUM(pb.total_amount), 0) " +
+                   "FROM procurement_batches pb " +
+                   "WHERE pb.purchase_date >= :start AND pb.purchase_date < :end " +
+                   "GROUP BY DATE(pb.purchase_date)", nativeQuery = true)
+    int insertRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,39 @@
+package com.vending.repository;
+
+import com.vending.entity.DailyProductMetric;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailyProductMetricRepository extends JpaRepository<DailyProductMetric, DailyProductMetric.Key> {
+
+    List<DailyProductMetric> findByMetricDateBetween(LocalDate startDate, LocalDate endDate);
+
+    @Modifying
+    @Query(value = "DELETE FROM daily_product_metrics " +
+                   "WHERE metric_date >= :startDate AND metric_date < :endDate", nativeQuery = true)
+    int deleteRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query(value = "INSERT INTO daily_product_metrics (metric_date, product_id, restocked_quantity, " +
+                   "procured_quantity, procurement_cost) " +
+                   "SELECT x.metric_date, x.product_id, SUM(x.restocked), SUM(x.procured), SUM(x.cost) " +
+                   "FROM (" +
+                   "SELECT DATE(rl.timestamp) AS metric_date, ri.product_id, ri.quantity AS restocked, " +
+                   "0 AS procured, 0 AS cost " +
+                   "FROM restock_items ri JOIN restocking_logs rl ON rl.id = ri.restocking_log_id " +
+                   "WHERE rl.timestamp >= :start AND rl.timestamp < :end " +
+                   "UNION ALL " +
+                   "SELECT DATE(pb.purchase_date), pi.product_id, 0, pi.quantity, pi.unit_cost * pi.quantity " +
+                   "FROM procurement_items pi JOIN procurement_batches pb ON pb.id = pi.batch_id " +
+                   "WHERE pb.purchase_date >= :start AND pb.purchase_date < :end" +
+                   ") x GROUP BY x.metric_date, x.product_id", nativeQuery = true)
+    int insertRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
@@ -1,12 +1,16 @@
 package com.vending.repository;
 
 import com.vending.entity.ProcurementBatch;
+import com.vending.repository.projection.ProcurementBatchSummary;
+import com.vending.repository.projection.VendorPurchaseStats;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -23,6 +27,22 @@ public interface ProcurementBatchRepository extends JpaRepository<ProcurementBat
     @Query("SELECT pb FROM ProcurementBatch pb ORDER BY pb.purchaseDate DESC")
     List<ProcurementBatch> findAllOrderByPurchaseDateDesc();
 
+    // Keyset pages of batch headers, newest first. The cursor is the (purchase date, id) of the previous page's last row.
+
+    @Query("SELECT new com.vending.repository.projection.ProcurementBatchSummary(" +
+           "pb.id, pb.purchaseDate, pb.supplier, pb.supplierContact, pb.invoiceNumber, " +
+           "pb.totalItemsCount, pb.subtotal, pb.totalHst, pb.totalAmount, pb.createdAt) " +
+           "FROM ProcurementBatch pb ORDER BY pb.purchaseDate DESC, pb.id DESC")
+    List<ProcurementBatchSummary> findFirstSummaryPage(Limit limit);
+
+    @Query("SELECT new com.vending.repository.projection.ProcurementBatchSummary(" +
+           "pb.id, pb.purchaseDate, pb.supplier, pb.supplierContact, pb.invoiceNumber, " +
+           "pb.totalItemsCount, pb.subtotal, pb.totalHst, pb.totalAmount, pb.createdAt) " +
+           "FROM ProcurementBatch pb " +
+           "WHERE pb.purchaseDate <= :date AND (pb.purchaseDate < :date OR pb.id < :id) " +
+           "ORDER BY pb.purchaseDate DESC, pb.id DESC")
+    List<ProcurementBatchSummary> findSummaryPageAfter(@Param("date") LocalDateTime date, @Param("id") UUID id, Limit limit);
+
     @Query("SELECT pb FROM ProcurementBatch pb " +
            "WHERE pb.purchaseDate >= :startDate " +
            "ORDER BY pb.purchaseDate DESC")
@@ -50,4 +70,16 @@ public interface ProcurementBatchRepository extends JpaRepository<ProcurementBat
     long countBatchesSince(@Param("startDate") LocalDateTime startDate);
 
     List<ProcurementBatch> findByVendorId(UUID vendorId);
+
+    @Query("SELECT new com.vending.repository.projection.VendorPurchaseStats(" +
+           "pb.vendor.id, COUNT(pb), SUM(pb.totalAmount), MAX(pb.purchaseDate)) " +
+           "FROM ProcurementBatch pb WHERE pb.vendor.id IS NOT NULL " +
+           "GROUP BY pb.vendor.id")
+    List<VendorPurchaseStats> sumByVendor();
+
+    @Query("SELECT new com.vending.repository.projection.VendorPurchaseStats(" +
+           "pb.vendor.id, COUNT(pb), SUM(pb.totalAmount), MAX(pb.purchaseDate)) " +
+           "FROM ProcurementBatch pb WHERE pb.vendor.id IN :vendorIds " +
+           "GROUP BY pb.vendor.id")
+    List<VendorPurchaseStats> sumByVendorIds(@Param("vendorIds") Collection<UUID> vendorIds);
 }
@@ -13,7 +13,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, ProductStockRepository {
 
     Optional<Product> findByName(String name);
 
@@ -51,6 +51,11 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     @Query("SELECT COUNT(p) FROM Product p WHERE p.active = true AND p.currentStock < p.minimumStock")
     long countLowStockProducts();
 
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.currentStock < p.minimumStock")
+    long countBelowMinimumStock();
+
+    long countByCurrentStock(Integer currentStock);
+
     @Query("SELECT SUM(p.currentStock) FROM Product p WHERE p.active = true")
     Long getTotalStockCount();
 
@@ -0,0 +1,49 @@
+package com.vending.repository;
+
+import com.vending.repository.projection.ProductStockVersion;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set-based stock changes for {@link ProductRepository}. Stock is only changed through
+ * {@code StockLedgerService}, which records a movement for every change. Every change bumps
+ * the product's version, so JPA writes of a product read before it fail their version check.
+ *
+ * Receipts also move the product's average unit cost in the same statement:
+ * {@code (stock * average + received cost) / (stock + units)}. Stock taken out or counted in
+ * leaves it unchanged.
+ */
+public interface ProductStockRepository {
+
+    /**
+     * Units to add to a product's stock and, for receipts, what they cost in total
+     * ({@link BigDecimal#ZERO} for any other movement). Both are negative when a receipt is reversed.
+     */
+    record StockChange(int units, BigDecimal receivedCost) {}
+
+    /**
+     * Apply each change to the product's current stock and average cost with one batched
+     * {@code UPDATE ... SET current_stock = current_stock + ?} per product, so concurrent
+     * changes to the same product add up instead of overwriting each other.
+     *
+     * @return number of products updated
+     */
+    int incrementStock(Map<UUID, StockChange> changes);
+
+    /**
+     * Read the current stock, average cost and version of the given products without locking them.
+     * Products that don't exist are missing from the result.
+     */
+    Map<UUID, ProductStockVersion> findStockVersions(Collection<UUID> productIds);
+
+    /**
+     * Apply each change only if the product's version is still the one read.
+     *
+     * @throws org.springframework.dao.OptimisticLockingFailureException if another writer
+     *         changed one of the products since it was read
+     */
+    void incrementStockIfUnchanged(Map<UUID, StockChange> changes, Map<UUID, ProductStockVersion> readVersions);
+}
@@ -0,0 +1,98 @@
+package com.vending.repository;
+
+import com.vending.repository.projection.ProductStockVersion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    // Assigned before current_stock: MySQL evaluates SET left to right against updated values
+    private static final String APPLY_CHANGE =
+            "UPDATE products SET average_cost = CASE WHEN ? <> 0 AND current_stock + ? > 0 " +
+            "THEN GREATEST(0, (current_stock * average_cost + ?) / (current_stock + ?)) ELSE average_cost END, " +
+            "current_stock = current_stock + ?, version = version + 1, updated_at = ? ";
+
+    private static final String INCREMENT_STOCK_SQL = APPLY_CHANGE + "WHERE id = ?";
+
+    private static final String INCREMENT_STOCK_IF_UNCHANGED_SQL = APPLY_CHANGE + "WHERE id = ? AND version = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int incrementStock(Map<UUID, StockChange> changes) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // Update rows in id order so concurrent batches lock shared products in the same order
+        List<Object[]> arguments = new ArrayList<>(changes.size());
+        changes.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(BinaryUuids.ORDER))
+                .forEach(entry -> arguments.add(arguments(entry.getValue(), now, BinaryUuids.toBytes(entry.getKey()))));
+
+        int updated = 0;
+        for (int count : jdbcTemplate.batchUpdate(INCREMENT_STOCK_SQL, arguments)) {
+            // Drivers may report SUCCESS_NO_INFO (-2) for rewritten batches
+            updated += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+        }
+        return updated;
+    }
+
+    @Override
+    public Map<UUID, ProductStockVersion> findStockVersions(Collection<UUID> productIds) {
+        Map<UUID, ProductStockVersion> versions = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return versions;
+        }
+
+        String placeholders = productIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        jdbcTemplate.query("SELECT id, current_stock, average_cost, version FROM products " +
+                        "WHERE id IN (" + placeholders + ")",
+                (RowCallbackHandler) rs -> {
+                    UUID id = BinaryUuids.toUuid(rs.getBytes(1));
+                    versions.put(id, new ProductStockVersion(id, rs.getInt(2), rs.getBigDecimal(3), rs.getLong(4)));
+                },
+                productIds.stream().map(BinaryUuids::toBytes).toArray());
+        return versions;
+    }
+
+    @Override
+    public void incrementStockIfUnchanged(Map<UUID, StockChange> changes,
+                                          Map<UUID, ProductStockVersion> readVersions) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // One statement per row: batched updates may not report which rows matched
+        for (UUID productId : changes.keySet().stream().sorted(BinaryUuids.ORDER).toList()) {
+            ProductStockVersion read = readVersions.get(productId);
+            int updated = jdbcTemplate.update(INCREMENT_STOCK_IF_UNCHANGED_SQL,
+                    arguments(changes.get(productId), now, BinaryUuids.toBytes(productId), read.version()));
+            if (updated == 0) {
+                throw new OptimisticLockingFailureException(
+                        "Stock of product " + productId + " was changed by another transaction");
+            }
+        }
+    }
+
+    private static Object[] arguments(StockChange change, Timestamp now, Object... where) {
+        Object[] set = {change.receivedCost(), change.units(), change.receivedCost(), change.units(),
+                change.units(), now};
+        Object[] arguments = Arrays.copyOf(set, set.length + where.length);
+        System.arraycopy(where, 0, arguments, set.length, where.length);
+        return arguments;
+    }
+}
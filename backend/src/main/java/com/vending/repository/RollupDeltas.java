@@ -0,0 +1,143 @@
+package com.vending.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Changes to the daily_*_metrics rollup rows, summed per machine and day, product and day, and day.
+ * Built from the before and after contributions of the rows a transaction wrote, and applied as
+ * increments by {@link DailyMetricDeltaRepository}.
+ */
+public class RollupDeltas {
+
+    public record MachineDay(LocalDate date, UUID machineId) {}
+
+    public record ProductDay(LocalDate date, UUID productId) {}
+
+    public record MachineMetrics(int restockCount, BigDecimal cashCollected, int itemsRestocked,
+                                 int maintenanceCount, int totalProductsSum, int lowStockSum,
+                                 int outOfStockSum, BigDecimal cashlessRevenue) {
+
+        public static MachineMetrics cashless(BigDecimal amount) {
+            return new MachineMetrics(0, BigDecimal.ZERO, 0, 0, 0, 0, 0, amount);
+        }
+
+        MachineMetrics plus(MachineMetrics other) {
+            return new MachineMetrics(restockCount + other.restockCount, cashCollected.add(other.cashCollected),
+                    itemsRestocked + other.itemsRestocked, maintenanceCount + other.maintenanceCount,
+                    totalProductsSum + other.totalProductsSum, lowStockSum + other.lowStockSum,
+                    outOfStockSum + other.outOfStockSum, cashlessRevenue.add(other.cashlessRevenue));
+        }
+
+        MachineMetrics negate() {
+            return new MachineMetrics(-restockCount, cashCollected.negate(), -itemsRestocked, -maintenanceCount,
+                    -totalProductsSum, -lowStockSum, -outOfStockSum, cashlessRevenue.negate());
+        }
+
+        boolean isZero() {
+            return restockCount == 0 && cashCollected.signum() == 0 && itemsRestocked == 0 && maintenanceCount == 0
+                    && totalProductsSum == 0 && lowStockSum == 0 && outOfStockSum == 0 && cashlessRevenue.signum() == 0;
+        }
+    }
+
+    public record ProductMetrics(int restockedQuantity, int procuredQuantity, BigDecimal procurementCost) {
+
+        ProductMetrics plus(ProductMetrics other) {
+            return new ProductMetrics(restockedQuantity + other.restockedQuantity,
+                    procuredQuantity + other.procuredQuantity, procurementCost.add(other.procurementCost));
+        }
+
+        ProductMetrics negate() {
+            return new ProductMetrics(-restockedQuantity, -procuredQuantity, procurementCost.negate());
+        }
+
+        boolean isZero() {
+            return restockedQuantity == 0 && procuredQuantity == 0 && procurementCost.signum() == 0;
+        }
+    }
+
+    public record ProcurementMetrics(int batchCount, BigDecimal subtotal, BigDecimal totalHst, BigDecimal totalAmount) {
+
+        ProcurementMetrics plus(ProcurementMetrics other) {
+            return new ProcurementMetrics(batchCount + other.batchCount, subtotal.add(other.subtotal),
+                    totalHst.add(other.totalHst), totalAmount.add(other.totalAmount));
+        }
+
+        ProcurementMetrics negate() {
+            return new ProcurementMetrics(-batchCount, subtotal.negate(), totalHst.negate(), totalAmount.negate());
+        }
+
+        boolean isZero() {
+            return batchCount == 0 && subtotal.signum() == 0 && totalHst.signum() == 0 && totalAmount.signum() == 0;
+        }
+    }
+
+    private final Map<MachineDay, MachineMetrics> machines = new HashMap<>();
+    private final Map<ProductDay, ProductMetrics> products = new HashMap<>();
+    private final Map<LocalDate, ProcurementMetrics> procurements = new HashMap<>();
+
+    public void add(MachineDay key, MachineMetrics metrics) {
+        machines.merge(key, metrics, MachineMetrics::plus);
+    }
+
+    public void add(ProductDay key, ProductMetrics metrics) {
+        products.merge(key, metrics, ProductMetrics::plus);
+    }
+
+    public void add(LocalDate day, ProcurementMetrics metrics) {
+        procurements.merge(day, metrics, ProcurementMetrics::plus);
+    }
+
+    public void addAll(RollupDeltas other) {
+        other.machines.forEach(this::add);
+        other.products.forEach(this::add);
+        other.procurements.forEach(this::add);
+    }
+
+    public void subtractAll(RollupDeltas other) {
+        other.machines.forEach((key, metrics) -> add(key, metrics.negate()));
+        other.products.forEach((key, metrics) -> add(key, metrics.negate()));
+        other.procurements.forEach((day, metrics) -> add(day, metrics.negate()));
+    }
+
+    /**
+     * Days with a non-zero change in any of the rollup tables
+     */
+    public Set<LocalDate> days() {
+        Set<LocalDate> days = new TreeSet<>();
+        machines().keySet().forEach(key -> days.add(key.date()));
+        products().keySet().forEach(key -> days.add(key.date()));
+        days.addAll(procurements().keySet());
+        return days;
+    }
+
+    public boolean isEmpty() {
+        return days().isEmpty();
+    }
+
+    // Only entries that actually change a row; edits that net out are left alone
+
+    Map<MachineDay, MachineMetrics> machines() {
+        Map<MachineDay, MachineMetrics> changed = new HashMap<>(machines);
+        changed.values().removeIf(MachineMetrics::isZero);
+        return Collections.unmodifiableMap(changed);
+    }
+
+    Map<ProductDay, ProductMetrics> products() {
+        Map<ProductDay, ProductMetrics> changed = new HashMap<>(products);
+        changed.values().removeIf(ProductMetrics::isZero);
+        return Collections.unmodifiableMap(changed);
+    }
+
+    Map<LocalDate, ProcurementMetrics> procurements() {
+        Map<LocalDate, ProcurementMetrics> changed = new HashMap<>(procurements);
+        changed.values().removeIf(ProcurementMetrics::isZero);
+        return Collections.unmodifiableMap(changed);
+    }
+}
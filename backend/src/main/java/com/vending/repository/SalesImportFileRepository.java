@@ -0,0 +1,13 @@
+package com.vending.repository;
+
+import com.vending.entity.SalesImportFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface SalesImportFileRepository extends JpaRepository<SalesImportFile, UUID> {
+    Optional<SalesImportFile> findByContentHash(String contentHash);
+}
@@ -1,10 +1,15 @@
 package com.vending.repository;
 
 import com.vending.entity.SalesRecord;
+import com.vending.repository.projection.SalesRecordSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -13,4 +18,27 @@ public interface SalesRecordRepository extends JpaRepository<SalesRecord, UUID>
     List<SalesRecord> findBySettlementDateBetweenOrderBySettlementDateDesc(LocalDate startDate, LocalDate endDate);
     List<SalesRecord> findBySourceOrderBySettlementDateDesc(String source);
     List<SalesRecord> findAllByOrderBySettlementDateDesc();
+    List<SalesRecord> findByFormatAndSettlementDateIn(String format, Collection<LocalDate> settlementDates);
+
+    // Keyset pages, newest first. The cursor is the (settlement date, id) of the previous page's last row.
+
+    @Query("SELECT s FROM SalesRecord s ORDER BY s.settlementDate DESC, s.id DESC")
+    List<SalesRecord> findFirstPage(Limit limit);
+
+    @Query("SELECT s FROM SalesRecord s " +
+           "WHERE s.settlementDate <= :date AND (s.settlementDate < :date OR s.id < :id) " +
+           "ORDER BY s.settlementDate DESC, s.id DESC")
+    List<SalesRecord> findPageAfter(@Param("date") LocalDate date, @Param("id") UUID id, Limit limit);
+
+    @Query("SELECT new com.vending.repository.projection.SalesRecordSummary(" +
+           "s.id, s.settlementDate, s.source, s.numberCompleted, s.approvedAmount, s.feeAmount) " +
+           "FROM SalesRecord s ORDER BY s.settlementDate DESC, s.id DESC")
+    List<SalesRecordSummary> findFirstSummaryPage(Limit limit);
+
+    @Query("SELECT new com.vending.repository.projection.SalesRecordSummary(" +
+           "s.id, s.settlementDate, s.source, s.numberCompleted, s.approvedAmount, s.feeAmount) " +
+           "FROM SalesRecord s " +
+           "WHERE s.settlementDate <= :date AND (s.settlementDate < :date OR s.id < :id) " +
+           "ORDER BY s.settlementDate DESC, s.id DESC")
+    List<SalesRecordSummary> findSummaryPageAfter(@Param("date") LocalDate date, @Param("id") UUID id, Limit limit);
 }
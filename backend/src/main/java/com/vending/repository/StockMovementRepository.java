@@ -0,0 +1,51 @@
+package com.vending.repository;
+
+import com.vending.entity.StockMovement;
+import com.vending.repository.projection.ProductDayCost;
+import com.vending.repository.projection.StockMovementTotal;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, UUID> {
+
+    List<StockMovement> findByProductIdOrderByOccurredAtDescIdDesc(UUID productId, Limit limit);
+
+    @Query("SELECT new com.vending.repository.projection.StockMovementTotal(" +
+           "m.productId, m.occurredAt, m.unitCost, SUM(m.quantity)) " +
+           "FROM StockMovement m " +
+           "WHERE m.referenceId = :referenceId AND m.movementType = :type " +
+           "GROUP BY m.productId, m.occurredAt, m.unitCost")
+    List<StockMovementTotal> sumByReference(@Param("referenceId") UUID referenceId,
+                                            @Param("type") StockMovement.MovementType type);
+
+    // Movements are stamped when recorded, so this is when the ledger began, backfilled history included
+    @Query("SELECT MIN(m.createdAt) FROM StockMovement m")
+    LocalDateTime findLedgerStart();
+
+    @Query("SELECT COALESCE(SUM(m.quantity), 0) FROM StockMovement m " +
+           "WHERE m.productId = :productId AND m.occurredAt < :end")
+    long sumBefore(@Param("productId") UUID productId, @Param("end") LocalDateTime end);
+
+    @Query("SELECT COALESCE(SUM(m.quantity), 0) FROM StockMovement m " +
+           "WHERE m.productId = :productId AND m.occurredAt >= :start AND m.occurredAt < :end")
+    long sumBetween(@Param("productId") UUID productId,
+                    @Param("start") LocalDateTime start,
+                    @Param("end") LocalDateTime end);
+
+    @Query("SELECT new com.vending.repository.projection.ProductDayCost(" +
+           "CAST(m.occurredAt AS LocalDate), m.productId, SUM(m.quantity * m.unitCost)) " +
+           "FROM StockMovement m " +
+           "WHERE m.movementType = :type AND m.occurredAt >= :start AND m.occurredAt < :end " +
+           "GROUP BY CAST(m.occurredAt AS LocalDate), m.productId")
+    List<ProductDayCost> sumCostByDayAndProduct(@Param("type") StockMovement.MovementType type,
+                                                @Param("start") LocalDateTime start,
+                                                @Param("end") LocalDateTime end);
+}
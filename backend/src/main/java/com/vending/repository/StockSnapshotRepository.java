@@ -0,0 +1,40 @@
+package com.vending.repository;
+
+import com.vending.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, StockSnapshot.Key> {
+
+    Optional<StockSnapshot> findFirstByProductIdAndSnapshotDateLessThanOrderBySnapshotDateDesc(
+        UUID productId, LocalDate date);
+
+    @Query("SELECT MAX(s.snapshotDate) FROM StockSnapshot s")
+    LocalDate findLatestSnapshotDate();
+
+    // Stock at the end of the day is the current stock less every movement from the next midnight on
+    @Modifying
+    @Query(value = "INSERT INTO stock_snapshots (product_id, snapshot_date, stock) " +
+                   "SELECT p.id, :date, p.current_stock - COALESCE((" +
+                   "SELECT SUM(m.quantity) FROM stock_movements m " +
+                   "WHERE m.product_id = p.id AND m.occurred_at >= :end), 0) " +
+                   "FROM products p " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM stock_snapshots s " +
+                   "WHERE s.product_id = p.id AND s.snapshot_date = :date)", nativeQuery = true)
+    int insertForDate(@Param("date") LocalDate date, @Param("end") LocalDateTime end);
+
+    // Folds a backdated movement into the snapshots taken after it happened
+    @Modifying
+    @Query(value = "UPDATE stock_snapshots SET stock = stock + :quantity " +
+                   "WHERE product_id = :productId AND snapshot_date >= :date", nativeQuery = true)
+    int addFrom(@Param("productId") UUID productId, @Param("date") LocalDate date, @Param("quantity") int quantity);
+}
@@ -1,6 +1,7 @@
 package com.vending.repository;
 
 import com.vending.entity.VendingMachine;
+import com.vending.repository.projection.MachinePosSerial;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -41,6 +42,10 @@ public interface VendingMachineRepository extends JpaRepository<VendingMachine,
 
     Optional<VendingMachine> findByPosSerialNumber(String posSerialNumber);
 
+    @Query("SELECT new com.vending.repository.projection.MachinePosSerial(vm.id, vm.posSerialNumber) " +
+           "FROM VendingMachine vm WHERE vm.posSerialNumber IS NOT NULL AND vm.posSerialNumber <> ''")
+    List<MachinePosSerial> findAllPosSerialNumbers();
+
     // Paginated methods
     Page<VendingMachine> findByBrandContainingIgnoreCaseOrModelContainingIgnoreCase(
             String brand, String model, Pageable pageable);
@@ -0,0 +1,17 @@
+package com.vending.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Restocking activity across all machines for one day, read from the daily rollup.
+ */
+public record DailyRestockTotal(
+    LocalDate date,
+    Long restockCount,
+    BigDecimal cashCollected,
+    Long itemsRestocked,
+    Long totalProductsSum,
+    Long lowStockSum,
+    Long outOfStockSum
+) {}
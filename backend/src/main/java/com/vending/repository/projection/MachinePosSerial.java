@@ -0,0 +1,11 @@
+package com.vending.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * A machine's cashless POS serial number
+ */
+public record MachinePosSerial(
+    UUID machineId,
+    String posSerialNumber
+) {}
@@ -0,0 +1,21 @@
+package com.vending.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The header columns and stored totals the procurement listing shows, read without the items
+ */
+public record ProcurementBatchSummary(
+    UUID id,
+    LocalDateTime purchaseDate,
+    String supplier,
+    String supplierContact,
+    String invoiceNumber,
+    Integer totalItemsCount,
+    BigDecimal subtotal,
+    BigDecimal totalHst,
+    BigDecimal totalAmount,
+    LocalDateTime createdAt
+) {}
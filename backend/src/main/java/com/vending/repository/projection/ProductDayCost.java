@@ -0,0 +1,15 @@
+package com.vending.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Cost of the units moved for a single product on one day, aggregated in SQL from the stock
+ * ledger. Negative for stock taken out of the warehouse.
+ */
+public record ProductDayCost(
+    LocalDate date,
+    UUID productId,
+    BigDecimal cost
+) {}
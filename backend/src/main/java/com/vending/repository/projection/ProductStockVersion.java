@@ -0,0 +1,14 @@
+package com.vending.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * A product's current stock and average unit cost, and the row version they were read at
+ */
+public record ProductStockVersion(
+    UUID productId,
+    Integer currentStock,
+    BigDecimal averageCost,
+    Long version
+) {}
@@ -0,0 +1,17 @@
+package com.vending.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * The columns the sales listing shows, read without loading the full record
+ */
+public record SalesRecordSummary(
+    UUID id,
+    LocalDate settlementDate,
+    String source,
+    Integer numberCompleted,
+    BigDecimal approvedAmount,
+    BigDecimal feeAmount
+) {}
@@ -0,0 +1,15 @@
+package com.vending.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Net units moved for one product at one time and unit cost by the movements of a single source record
+ */
+public record StockMovementTotal(
+    UUID productId,
+    LocalDateTime occurredAt,
+    BigDecimal unitCost,
+    Long quantity
+) {}
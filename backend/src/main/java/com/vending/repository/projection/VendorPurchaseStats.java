@@ -0,0 +1,15 @@
+package com.vending.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Number of procurement batches, total spent and latest purchase for a single vendor, aggregated in SQL.
+ */
+public record VendorPurchaseStats(
+    UUID vendorId,
+    Long purchaseCount,
+    BigDecimal totalSpent,
+    LocalDateTime lastPurchaseDate
+) {}
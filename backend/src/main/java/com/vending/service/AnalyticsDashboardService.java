@@ -0,0 +1,131 @@
+package com.vending.service;
+
+import com.vending.dto.analytics.AnalyticsDashboardDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Builds the analytics dashboard by running its sections concurrently on virtual threads.
+ *
+ * Each section goes through the {@link AnalyticsService} proxy on its own thread, so it runs in
+ * its own read-only transaction and shares the analytics caches. All sections share one deadline.
+ * The deadline is the section's transaction timeout, which Spring applies to every query as a JDBC
+ * query timeout, and a section still running when it passes is interrupted. Sections that fail or
+ * miss it are left empty and listed in {@code incompleteSections}.
+ *
+ * At most {@code app.analytics.dashboard-max-concurrent-sections} sections run at once across all
+ * requests; the others wait for a slot, within the same deadline.
+ */
+@Service
+@Slf4j
+public class AnalyticsDashboardService {
+
+    private final AnalyticsService analyticsService;
+    private final PlatformTransactionManager transactionManager;
+    private final long timeoutMs;
+    private final Semaphore sectionSlots;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public AnalyticsDashboardService(AnalyticsService analyticsService,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.analytics.dashboard-timeout-ms}") long timeoutMs,
+                                     @Value("${app.analytics.dashboard-max-concurrent-sections}") int maxConcurrentSections) {
+        this.analyticsService = analyticsService;
+        this.transactionManager = transactionManager;
+        this.timeoutMs = timeoutMs;
+        this.sectionSlots = new Semaphore(maxConcurrentSections);
+    }
+
+    /**
+     * Get all dashboard sections for the date range
+     */
+    public AnalyticsDashboardDTO getDashboard(LocalDateTime startDate, LocalDateTime endDate) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        AnalyticsDashboardDTO dashboard = new AnalyticsDashboardDTO();
+
+        Map<String, Section<?>> sections = new LinkedHashMap<>();
+        sections.put("summary", submit(deadline, () -> analyticsService.getSummary(startDate, endDate),
+            AnalyticsDashboardDTO::setSummary));
+        sections.put("revenue", submit(deadline, () -> analyticsService.getRevenueData(startDate, endDate),
+            AnalyticsDashboardDTO::setRevenue));
+        sections.put("inventoryTrends", submit(deadline, () -> analyticsService.getInventoryTrends(startDate, endDate),
+            AnalyticsDashboardDTO::setInventoryTrends));
+        sections.put("machinePerformance", submit(deadline, () -> analyticsService.getMachinePerformance(startDate, endDate),
+            AnalyticsDashboardDTO::setMachinePerformance));
+        sections.put("productAnalytics", submit(deadline, () -> analyticsService.getProductAnalytics(startDate, endDate),
+            AnalyticsDashboardDTO::setProductAnalytics));
+        sections.put("categoryBreakdown", submit(deadline, () -> analyticsService.getCategoryBreakdown(startDate, endDate),
+            AnalyticsDashboardDTO::setCategoryBreakdown));
+
+        sections.forEach((name, section) -> {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            try {
+                section.collect(dashboard, remaining);
+            } catch (TimeoutException e) {
+                section.future().cancel(true);
+                log.warn("Dashboard section '{}' missed the {} ms deadline", name, timeoutMs);
+                dashboard.getIncompleteSections().add(name);
+            } catch (ExecutionException e) {
+                log.error("Dashboard section '{}' failed", name, e.getCause());
+                dashboard.getIncompleteSections().add(name);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                section.future().cancel(true);
+                dashboard.getIncompleteSections().add(name);
+            }
+        });
+
+        return dashboard;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Submitted as a FutureTask, so cancelling it interrupts the section's thread
+    private <T> Section<T> submit(long deadline, Supplier<T> query, BiConsumer<AnalyticsDashboardDTO, T> setter) {
+        return new Section<>(executor.submit(() -> runSection(deadline, query)), setter);
+    }
+
+    private <T> T runSection(long deadline, Supplier<T> query) throws InterruptedException, TimeoutException {
+        if (!sectionSlots.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("No section slot became free before the deadline");
+        }
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            // Rounded up to whole seconds, the resolution of Spring's transaction timeouts
+            long remainingNanos = Math.max(0, deadline - System.nanoTime());
+            transaction.setTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remainingNanos + 999_999_999L)));
+            return transaction.execute(status -> query.get());
+        } finally {
+            sectionSlots.release();
+        }
+    }
+
+    private record Section<T>(Future<T> future, BiConsumer<AnalyticsDashboardDTO, T> setter) {
+
+        void collect(AnalyticsDashboardDTO dashboard, long timeoutNanos)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            setter.accept(dashboard, future.get(timeoutNanos, TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.vending.service;
+
+import com.vending.dto.analytics.AnalyticsDashboardDTO;
+import com.vending.dto.analytics.AnalyticsJobDTO;
+import com.vending.dto.analytics.AnalyticsJobDTO.JobStatus;
+import com.vending.dto.analytics.AnalyticsJobRequest;
+import com.vending.exception.BadRequestException;
+import com.vending.exception.ResourceNotFoundException;
+import com.vending.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Runs analytics reports as background jobs for date ranges too long to serve within a request.
+ *
+ * Jobs run on a bounded pool. Queued and running jobs are held until they finish, so a busy cache
+ * can never lose one; finished jobs move to the {@code analytics-jobs} cache, where they may be
+ * evicted. Resubmitting the spec of an active job returns that job, and so does resubmitting the
+ * spec of a completed job whose range ended before today, as long as none of its days has been
+ * evicted from {@link DailyAnalyticsCache} since the job started; a backdated import or edit makes
+ * the job's results stale. A range that includes today is still changing, so its finished results
+ * are never reused. Day-series reports
+ * are computed in chunks, each in its own read-only transaction, so no connection is held for the
+ * whole run and progress can be reported between chunks.
+ */
+@Service
+@Slf4j
+public class AnalyticsJobService {
+
+    public static final String CACHE_NAME = "analytics-jobs";
+
+    private static final int CHUNK_DAYS = 90;
+
+    // Suggested wait before resubmitting when the queue is full
+    private static final long RETRY_AFTER_SECONDS = 30;
+
+    private final AnalyticsService analyticsService;
+    private final DailyAnalyticsCache dailyAnalyticsCache;
+    private final Cache jobs;
+    private final Map<UUID, Job> activeJobs = new ConcurrentHashMap<>();
+    private final Map<AnalyticsJobRequest, UUID> activeJobsBySpec = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public AnalyticsJobService(AnalyticsService analyticsService,
+                               DailyAnalyticsCache dailyAnalyticsCache,
+                               CacheManager cacheManager,
+                               @Value("${app.analytics.jobs.max-concurrent}") int maxConcurrent,
+                               @Value("${app.analytics.jobs.queue-capacity}") int queueCapacity) {
+        this.analyticsService = analyticsService;
+        this.dailyAnalyticsCache = dailyAnalyticsCache;
+        this.jobs = cacheManager.getCache(CACHE_NAME);
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("analytics-job-"));
+    }
+
+    /**
+     * Submit a report, or return the job already holding the same spec
+     */
+    public synchronized AnalyticsJobDTO submit(AnalyticsJobRequest request) {
+        if (request.endDate().isBefore(request.startDate())) {
+            throw new BadRequestException("End date must not be before start date");
+        }
+
+        Job existing = findReusable(request);
+        if (existing != null) {
+            log.info("Reusing analytics job {} for {}", existing.id, request);
+            return toDto(existing);
+        }
+
+        Job job = new Job(UUID.randomUUID(), request);
+        activeJobs.put(job.id, job);
+        activeJobsBySpec.put(request, job.id);
+        try {
+            job.future = executor.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(job.id);
+            activeJobsBySpec.remove(request, job.id);
+            throw new ServiceUnavailableException("Too many analytics jobs are queued, please try again later",
+                RETRY_AFTER_SECONDS);
+        }
+
+        log.info("Submitted analytics job {} for {}", job.id, request);
+        return toDto(job);
+    }
+
+    /**
+     * Get job status and progress
+     */
+    public AnalyticsJobDTO getJob(UUID id) {
+        return toDto(findJob(id));
+    }
+
+    /**
+     * Get the result of a completed job
+     */
+    public Object getResult(UUID id) {
+        Job job = findJob(id);
+        if (job.status != JobStatus.COMPLETED) {
+            throw new BadRequestException("Analytics job " + id + " has no result (status: " + job.status + ")");
+        }
+        return job.result;
+    }
+
+    /**
+     * Cancel a queued or running job
+     */
+    public AnalyticsJobDTO cancel(UUID id) {
+        Job job = findJob(id);
+        synchronized (job) {
+            if (job.status == JobStatus.QUEUED || job.status == JobStatus.RUNNING) {
+                job.status = JobStatus.CANCELLED;
+                job.completedAt = LocalDateTime.now();
+                job.future.cancel(true);
+                executor.remove((Runnable) job.future);
+                retire(job);
+                log.info("Cancelled analytics job {}", id);
+            }
+        }
+        return toDto(job);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Job findReusable(AnalyticsJobRequest request) {
+        UUID activeId = activeJobsBySpec.get(request);
+        Job active = activeId != null ? activeJobs.get(activeId) : null;
+        if (active != null) {
+            return active;
+        }
+        if (includesToday(request)) {
+            return null;
+        }
+        UUID finishedId = jobs.get(request, UUID.class);
+        Job finished = finishedId != null ? jobs.get(finishedId, Job.class) : null;
+        if (finished != null && !finished.generations.equals(generationsOf(request))) {
+            jobs.evict(request);
+            return null;
+        }
+        return finished;
+    }
+
+    private Map<LocalDate, Long> generationsOf(AnalyticsJobRequest request) {
+        return dailyAnalyticsCache.generationsOf(request.startDate().toLocalDate(), request.endDate().toLocalDate());
+    }
+
+    private static boolean includesToday(AnalyticsJobRequest request) {
+        return !request.endDate().toLocalDate().isBefore(LocalDate.now());
+    }
+
+    /**
+     * Move a finished job to the cache. It is cached before it leaves the active map, so lookups
+     * always find it in one or the other. Only completed jobs over a closed range are indexed by spec.
+     */
+    private void retire(Job job) {
+        jobs.put(job.id, job);
+        if (job.status == JobStatus.COMPLETED && !includesToday(job.request)) {
+            jobs.put(job.request, job.id);
+        }
+        activeJobs.remove(job.id);
+        activeJobsBySpec.remove(job.request, job.id);
+    }
+
+    private Job findJob(UUID id) {
+        Job job = activeJobs.get(id);
+        if (job == null) {
+            job = jobs.get(id, Job.class);
+        }
+        if (job == null) {
+            throw new ResourceNotFoundException("Analytics job not found with id: " + id);
+        }
+        return job;
+    }
+
+    private void run(Job job) {
+        synchronized (job) {
+            if (job.status != JobStatus.QUEUED) {
+                return;
+            }
+            job.status = JobStatus.RUNNING;
+            job.startedAt = LocalDateTime.now();
+            // Noted before any query, so a change committed while the job runs makes it stale
+            job.generations = generationsOf(job.request);
+        }
+
+        try {
+            execute(job);
+        } finally {
+            retire(job);
+        }
+    }
+
+    private void execute(Job job) {
+        try {
+            Object result = compute(job);
+            synchronized (job) {
+                if (job.status == JobStatus.RUNNING) {
+                    job.result = result;
+                    job.progress = 100;
+                    job.status = JobStatus.COMPLETED;
+                    job.completedAt = LocalDateTime.now();
+                }
+            }
+            log.info("Analytics job {} finished with status {}", job.id, job.status);
+        } catch (CancellationException e) {
+            log.info("Analytics job {} stopped after cancellation", job.id);
+        } catch (Exception e) {
+            synchronized (job) {
+                if (job.status != JobStatus.RUNNING) {
+                    log.info("Analytics job {} stopped after cancellation", job.id);
+                    return;
+                }
+                job.status = JobStatus.FAILED;
+                job.error = e.getMessage();
+                job.completedAt = LocalDateTime.now();
+            }
+            log.error("Analytics job {} failed", job.id, e);
+        }
+    }
+
+    private Object compute(Job job) {
+        AnalyticsJobRequest request = job.request;
+        LocalDateTime start = request.startDate();
+        LocalDateTime end = request.endDate();
+
+        return switch (request.reportType()) {
+            case SUMMARY -> analyticsService.getSummary(start, end);
+            case REVENUE -> inChunks(job, analyticsService::getRevenueData);
+            case INVENTORY_TRENDS -> inChunks(job, analyticsService::getInventoryTrends);
+            case MACHINE_PERFORMANCE -> analyticsService.getMachinePerformance(start, end);
+            case PRODUCT_ANALYTICS -> analyticsService.getProductAnalytics(start, end);
+            case CATEGORY_BREAKDOWN -> analyticsService.getCategoryBreakdown(start, end);
+            case DASHBOARD -> dashboard(job);
+        };
+    }
+
+    /**
+     * Compute a per-day series over consecutive chunks of the range and concatenate them
+     */
+    private <T> List<T> inChunks(Job job, BiFunction<LocalDateTime, LocalDateTime, List<T>> query) {
+        LocalDate firstDay = job.request.startDate().toLocalDate();
+        LocalDate lastDay = job.request.endDate().toLocalDate();
+        long totalDays = ChronoUnit.DAYS.between(firstDay, lastDay) + 1;
+
+        List<T> result = new ArrayList<>();
+        LocalDate chunkStart = firstDay;
+        while (!chunkStart.isAfter(lastDay)) {
+            LocalDate chunkEnd = chunkStart.plusDays(CHUNK_DAYS - 1);
+            if (chunkEnd.isAfter(lastDay)) {
+                chunkEnd = lastDay;
+            }
+
+            checkCancelled(job);
+            result.addAll(query.apply(chunkStart.atStartOfDay(), chunkEnd.atTime(LocalTime.MAX)));
+            job.progress = (int) ((ChronoUnit.DAYS.between(firstDay, chunkEnd) + 1) * 100 / totalDays);
+            chunkStart = chunkEnd.plusDays(1);
+        }
+        return result;
+    }
+
+    private AnalyticsDashboardDTO dashboard(Job job) {
+        LocalDateTime start = job.request.startDate();
+        LocalDateTime end = job.request.endDate();
+        AnalyticsDashboardDTO dashboard = new AnalyticsDashboardDTO();
+
+        List<Runnable> sections = List.of(
+            () -> dashboard.setSummary(analyticsService.getSummary(start, end)),
+            () -> dashboard.setRevenue(analyticsService.getRevenueData(start, end)),
+            () -> dashboard.setInventoryTrends(analyticsService.getInventoryTrends(start, end)),
+            () -> dashboard.setMachinePerformance(analyticsService.getMachinePerformance(start, end)),
+            () -> dashboard.setProductAnalytics(analyticsService.getProductAnalytics(start, end)),
+            () -> dashboard.setCategoryBreakdown(analyticsService.getCategoryBreakdown(start, end))
+        );
+
+        for (int i = 0; i < sections.size(); i++) {
+            checkCancelled(job);
+            sections.get(i).run();
+            job.progress = (i + 1) * 100 / sections.size();
+        }
+        return dashboard;
+    }
+
+    private void checkCancelled(Job job) {
+        if (job.status == JobStatus.CANCELLED || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+    }
+
+    private AnalyticsJobDTO toDto(Job job) {
+        return AnalyticsJobDTO.builder()
+            .id(job.id)
+            .reportType(job.request.reportType())
+            .startDate(job.request.startDate())
+            .endDate(job.request.endDate())
+            .status(job.status)
+            .progress(job.progress)
+            .submittedAt(job.submittedAt)
+            .startedAt(job.startedAt)
+            .completedAt(job.completedAt)
+            .error(job.error)
+            .build();
+    }
+
+    private static final class Job {
+        private final UUID id;
+        private final AnalyticsJobRequest request;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile int progress;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+        private volatile String error;
+        private volatile Object result;
+        private volatile Future<?> future;
+        private volatile Map<LocalDate, Long> generations;
+
+        private Job(UUID id, AnalyticsJobRequest request) {
+            this.id = id;
+            this.request = request;
+        }
+    }
+}
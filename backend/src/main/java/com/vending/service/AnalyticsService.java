@@ -3,19 +3,21 @@ package com.vending.service;
 import com.vending.dto.analytics.*;
 import com.vending.entity.Product;
 import com.vending.repository.*;
+import com.vending.service.DailyAnalyticsCache.DayBucket;
+import com.vending.service.DailyAnalyticsCache.MachineDayTotals;
+import com.vending.service.DailyAnalyticsCache.ProductDayTotals;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,28 +28,28 @@ public class AnalyticsService {
 
     private final ProductRepository productRepository;
     private final VendingMachineRepository machineRepository;
-    private final RestockingLogRepository restockingLogRepository;
-    private final ProcurementBatchRepository procurementBatchRepository;
-    private final ProcurementItemRepository procurementItemRepository;
-    private final RestockItemRepository restockItemRepository;
+    private final DailyAnalyticsCache dailyAnalyticsCache;
 
     /**
      * Get overall analytics summary
      */
-    @Cacheable(value = "analytics-summary", key = "'summary-' + #startDate + '-' + #endDate")
     public AnalyticsSummaryDTO getSummary(LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Calculating analytics summary from {} to {}", startDate, endDate);
 
+        List<DayBucket> days = dailyAnalyticsCache.getDays(startDate.toLocalDate(), endDate.toLocalDate());
+
         // Total cash collected from restocking
-        BigDecimal totalCashCollected = restockingLogRepository.findByTimestampBetween(startDate, endDate)
-            .stream()
-            .map(log -> log.getCashCollected() != null ? log.getCashCollected() : BigDecimal.ZERO)
+        BigDecimal totalCashCollected = days.stream()
+            .map(DayBucket::cashCollected)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
 
+        int totalRestockingSessions = days.stream()
+            .mapToInt(DayBucket::restockCount)
+            .sum();
+
         // Total procurement cost
-        BigDecimal totalProcurementCost = procurementBatchRepository.findByPurchaseDateBetween(startDate, endDate)
-            .stream()
-            .map(batch -> batch.getTotalAmount() != null ? batch.getTotalAmount() : BigDecimal.ZERO)
+        BigDecimal totalProcurementCost = days.stream()
+            .map(DayBucket::procurementCost)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         // Profit margin
@@ -58,15 +60,6 @@ public class AnalyticsService {
                 .multiply(new BigDecimal("100"));
         }
 
-        // Product counts
-        List<Product> products = productRepository.findAll();
-        int lowStockCount = (int) products.stream()
-            .filter(p -> p.getCurrentStock() < p.getMinimumStock())
-            .count();
-        int outOfStockCount = (int) products.stream()
-            .filter(p -> p.getCurrentStock() == 0)
-            .count();
-
         return AnalyticsSummaryDTO.builder()
             .totalRevenue(totalCashCollected)
             .totalProcurementCost(totalProcurementCost)
@@ -74,174 +67,80 @@ public class AnalyticsService {
             .profitMargin(profitMargin)
             .totalProducts((int) productRepository.count())
             .totalMachines((int) machineRepository.count())
-            .totalRestockingSessions((int) restockingLogRepository.countByTimestampBetween(startDate, endDate))
-            .lowStockProducts(lowStockCount)
-            .outOfStockProducts(outOfStockCount)
+            .totalRestockingSessions(totalRestockingSessions)
+            .lowStockProducts((int) productRepository.countBelowMinimumStock())
+            .outOfStockProducts((int) productRepository.countByCurrentStock(0))
             .build();
     }
 
     /**
      * Get revenue data over time
      */
-    @Cacheable(value = "analytics-revenue", key = "'revenue-' + #startDate + '-' + #endDate")
     public List<RevenueDataDTO> getRevenueData(LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Calculating revenue data from {} to {}", startDate, endDate);
 
-        var restockLogs = restockingLogRepository.findByTimestampBetween(startDate, endDate);
-        var procurementBatches = procurementBatchRepository.findByPurchaseDateBetween(startDate, endDate);
-
-        // Group by date
-        Map<LocalDate, BigDecimal> cashByDate = restockLogs.stream()
-            .collect(Collectors.groupingBy(
-                log -> log.getTimestamp().toLocalDate(),
-                Collectors.reducing(BigDecimal.ZERO,
-                    log -> log.getCashCollected() != null ? log.getCashCollected() : BigDecimal.ZERO,
-                    BigDecimal::add)
-            ));
-
-        Map<LocalDate, BigDecimal> costByDate = procurementBatches.stream()
-            .collect(Collectors.groupingBy(
-                batch -> batch.getPurchaseDate().toLocalDate(),
-                Collectors.reducing(BigDecimal.ZERO,
-                    batch -> batch.getTotalAmount() != null ? batch.getTotalAmount() : BigDecimal.ZERO,
-                    BigDecimal::add)
-            ));
-
-        Map<LocalDate, Long> restockCountByDate = restockLogs.stream()
-            .collect(Collectors.groupingBy(
-                log -> log.getTimestamp().toLocalDate(),
-                Collectors.counting()
-            ));
-
-        // Merge data
-        List<RevenueDataDTO> result = new ArrayList<>();
-        LocalDate current = startDate.toLocalDate();
-        LocalDate end = endDate.toLocalDate();
-
-        while (!current.isAfter(end)) {
-            BigDecimal cash = cashByDate.getOrDefault(current, BigDecimal.ZERO);
-            BigDecimal cost = costByDate.getOrDefault(current, BigDecimal.ZERO);
-            BigDecimal profit = cash.subtract(cost);
-
-            result.add(RevenueDataDTO.builder()
-                .date(current)
-                .cashCollected(cash)
-                .procurementCost(cost)
-                .profit(profit)
-                .restockCount(restockCountByDate.getOrDefault(current, 0L).intValue())
-                .build());
-
-            current = current.plusDays(1);
-        }
-
-        return result;
+        return dailyAnalyticsCache.getDays(startDate.toLocalDate(), endDate.toLocalDate()).stream()
+            .map(day -> RevenueDataDTO.builder()
+                .date(day.date())
+                .cashCollected(day.cashCollected())
+                .procurementCost(day.procurementCost())
+                .profit(day.cashCollected().subtract(day.procurementCost()))
+                .restockCount(day.restockCount())
+                .build())
+            .collect(Collectors.toList());
     }
 
     /**
      * Get inventory trends over time
      */
-    @Cacheable(value = "analytics-inventory", key = "'inventory-' + #startDate + '-' + #endDate")
     public List<InventoryTrendDTO> getInventoryTrends(LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Calculating inventory trends from {} to {}", startDate, endDate);
 
-        var restockLogs = restockingLogRepository.findByTimestampBetween(startDate, endDate);
-        var restockItems = restockItemRepository.findAll(); // Get all restock items
-
-        // Group by date
-        Map<LocalDate, List<Integer>> stockByDate = restockLogs.stream()
-            .collect(Collectors.groupingBy(
-                log -> log.getTimestamp().toLocalDate(),
-                Collectors.mapping(
-                    log -> log.getInventoryStatus() != null ? log.getInventoryStatus().getTotalProducts() : 0,
-                    Collectors.toList()
-                )
-            ));
-
-        Map<LocalDate, Long> lowStockByDate = restockLogs.stream()
-            .collect(Collectors.groupingBy(
-                log -> log.getTimestamp().toLocalDate(),
-                Collectors.summingLong(log ->
-                    log.getInventoryStatus() != null ? log.getInventoryStatus().getLowStockProducts() : 0L)
-            ));
-
-        Map<LocalDate, Long> outOfStockByDate = restockLogs.stream()
-            .collect(Collectors.groupingBy(
-                log -> log.getTimestamp().toLocalDate(),
-                Collectors.summingLong(log ->
-                    log.getInventoryStatus() != null ? log.getInventoryStatus().getOutOfStockProducts() : 0L)
-            ));
-
-        Map<LocalDate, Integer> restockedCountByDate = restockLogs.stream()
-            .collect(Collectors.groupingBy(
-                log -> log.getTimestamp().toLocalDate(),
-                Collectors.summingInt(log -> log.getItemsRestocked().stream()
-                    .mapToInt(item -> item.getQuantity())
-                    .sum())
-            ));
-
-        // Build result
-        List<InventoryTrendDTO> result = new ArrayList<>();
-        LocalDate current = startDate.toLocalDate();
-        LocalDate end = endDate.toLocalDate();
-
-        while (!current.isAfter(end)) {
-            List<Integer> stocks = stockByDate.getOrDefault(current, List.of(0));
-            int avgStock = stocks.isEmpty() ? 0 : (int) stocks.stream().mapToInt(Integer::intValue).average().orElse(0);
-
-            result.add(InventoryTrendDTO.builder()
-                .date(current)
-                .totalStock(avgStock)
-                .lowStockCount(lowStockByDate.getOrDefault(current, 0L).intValue())
-                .outOfStockCount(outOfStockByDate.getOrDefault(current, 0L).intValue())
-                .restockedItemsCount(restockedCountByDate.getOrDefault(current, 0))
-                .build());
-
-            current = current.plusDays(1);
-        }
-
-        return result;
+        return dailyAnalyticsCache.getDays(startDate.toLocalDate(), endDate.toLocalDate()).stream()
+            .map(day -> {
+                // Average products on hand across the day's restocking sessions
+                int avgStock = day.restockCount() > 0 ? (int) (day.totalProductsSum() / day.restockCount()) : 0;
+
+                return InventoryTrendDTO.builder()
+                    .date(day.date())
+                    .totalStock(avgStock)
+                    .lowStockCount((int) day.lowStockSum())
+                    .outOfStockCount((int) day.outOfStockSum())
+                    .restockedItemsCount((int) day.itemsRestocked())
+                    .build();
+            })
+            .collect(Collectors.toList());
     }
 
     /**
-     * Get machine performance metrics
+     * Get machine performance metrics over whole days, assembled from per-day machine totals
      */
-    @Cacheable(value = "analytics-machines", key = "'machines-' + #startDate + '-' + #endDate")
     public List<MachinePerformanceDTO> getMachinePerformance(LocalDateTime startDate, LocalDateTime endDate) {
-        log.info("Calculating machine performance from {} to {}", startDate, endDate);
+        log.info("Calculating machine performance from {} to {}", startDate.toLocalDate(), endDate.toLocalDate());
+
+        Map<UUID, MachineDayTotals> totals = new HashMap<>();
+        for (Map<UUID, MachineDayTotals> day : dailyAnalyticsCache.getMachineDays(startDate.toLocalDate(), endDate.toLocalDate())) {
+            day.forEach((machineId, machine) -> totals.merge(machineId, machine, MachineDayTotals::plus));
+        }
 
         return machineRepository.findAll().stream()
             .map(machine -> {
-                var logs = restockingLogRepository.findByMachineAndTimestampBetween(machine, startDate, endDate);
-
-                BigDecimal totalCash = logs.stream()
-                    .map(log -> log.getCashCollected() != null ? log.getCashCollected() : BigDecimal.ZERO)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                int restockCount = logs.size();
-                BigDecimal avgCash = restockCount > 0
-                    ? totalCash.divide(new BigDecimal(restockCount), 2, RoundingMode.HALF_UP)
+                MachineDayTotals total = totals.getOrDefault(machine.getId(), MachineDayTotals.NONE);
+                BigDecimal avgCash = total.restockCount() > 0
+                    ? total.cashCollected().divide(new BigDecimal(total.restockCount()), 2, RoundingMode.HALF_UP)
                     : BigDecimal.ZERO;
 
-                int totalItemsRestocked = logs.stream()
-                    .mapToInt(log -> log.getItemsRestocked().stream()
-                        .mapToInt(item -> item.getQuantity())
-                        .sum())
-                    .sum();
-
-                long maintenanceCount = logs.stream()
-                    .filter(log -> log.isMaintenancePerformed())
-                    .count();
-
                 return MachinePerformanceDTO.builder()
                     .machineId(machine.getId())
                     .machineBrand(machine.getBrand())
                     .machineModel(machine.getModel())
-                    .locationAddress(machine.getLocation().getAddress())
-                    .restockCount(restockCount)
-                    .totalCashCollected(totalCash)
+                    .locationAddress(machine.getLocation() != null ? machine.getLocation().getAddress() : null)
+                    .restockCount(total.restockCount())
+                    .totalCashCollected(total.cashCollected())
                     .averageCashPerRestock(avgCash)
-                    .totalItemsRestocked(totalItemsRestocked)
-                    .maintenanceCount((int) maintenanceCount)
+                    .totalItemsRestocked((int) total.itemsRestocked())
+                    .maintenanceCount(total.maintenanceCount())
+                    .cashlessRevenue(total.cashlessRevenue())
                     .build();
             })
             .sorted((a, b) -> b.getTotalCashCollected().compareTo(a.getTotalCashCollected()))
@@ -249,41 +148,19 @@ public class AnalyticsService {
     }
 
     /**
-     * Get product analytics
+     * Get product analytics over whole days, assembled from per-day product totals
      */
-    @Cacheable(value = "analytics-products", key = "'products-' + #startDate + '-' + #endDate")
     public List<ProductAnalyticsDTO> getProductAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
-        log.info("Calculating product analytics from {} to {}", startDate, endDate);
+        log.info("Calculating product analytics from {} to {}", startDate.toLocalDate(), endDate.toLocalDate());
+
+        Map<UUID, ProductDayTotals> totals = sumProductDays(startDate, endDate);
 
         return productRepository.findAll().stream()
             .map(product -> {
-                // Total restocked
-                int totalRestocked = restockItemRepository.findByProduct(product).stream()
-                    .filter(item -> {
-                        var log = item.getRestockingLog();
-                        return log.getTimestamp().isAfter(startDate) && log.getTimestamp().isBefore(endDate);
-                    })
-                    .mapToInt(item -> item.getQuantity())
-                    .sum();
-
-                // Total procured and cost
-                var procurementItems = procurementItemRepository.findByProduct(product).stream()
-                    .filter(item -> {
-                        var batch = item.getBatch();
-                        return batch.getPurchaseDate().isAfter(startDate) && batch.getPurchaseDate().isBefore(endDate);
-                    })
-                    .collect(Collectors.toList());
-
-                int totalProcured = procurementItems.stream()
-                    .mapToInt(item -> item.getQuantity())
-                    .sum();
-
-                BigDecimal totalCost = procurementItems.stream()
-                    .map(item -> item.getUnitCost().multiply(new BigDecimal(item.getQuantity())))
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
+                ProductDayTotals total = totals.getOrDefault(product.getId(), ProductDayTotals.NONE);
+                int totalProcured = (int) total.procured();
                 BigDecimal avgCost = totalProcured > 0
-                    ? totalCost.divide(new BigDecimal(totalProcured), 2, RoundingMode.HALF_UP)
+                    ? total.procurementCost().divide(new BigDecimal(totalProcured), 2, RoundingMode.HALF_UP)
                     : BigDecimal.ZERO;
 
                 return ProductAnalyticsDTO.builder()
@@ -291,10 +168,13 @@ public class AnalyticsService {
                     .productName(product.getName())
                     .category(product.getCategory())
                     .currentStock(product.getCurrentStock())
-                    .totalRestocked(totalRestocked)
+                    .totalRestocked((int) total.restocked())
                     .totalProcured(totalProcured)
-                    .totalProcurementCost(totalCost)
+                    .totalProcurementCost(total.procurementCost())
                     .averageUnitCost(avgCost)
+                    .movingAverageCost(product.getAverageCost())
+                    .costOfGoodsRestocked(total.costOfGoodsRestocked())
+                    .unitMargin(product.getUnitMargin())
                     .minimumStock(product.getMinimumStock())
                     .isLowStock(product.getCurrentStock() < product.getMinimumStock())
                     .build();
@@ -304,66 +184,46 @@ public class AnalyticsService {
     }
 
     /**
-     * Get category breakdown
+     * Get category breakdown: stock on hand now, and restock and procurement activity over whole days
      */
-    @Cacheable(value = "analytics-categories", key = "'categories-' + #startDate + '-' + #endDate")
     public List<CategoryBreakdownDTO> getCategoryBreakdown(LocalDateTime startDate, LocalDateTime endDate) {
-        log.info("Calculating category breakdown from {} to {}", startDate, endDate);
-
-        Map<String, List<Product>> productsByCategory = productRepository.findAll().stream()
-            .collect(Collectors.groupingBy(Product::getCategory));
-
-        return productsByCategory.entrySet().stream()
-            .map(entry -> {
-                String category = entry.getKey();
-                List<Product> products = entry.getValue();
-
-                int productCount = products.size();
-                int totalStock = products.stream().mapToInt(Product::getCurrentStock).sum();
+        log.info("Calculating category breakdown from {} to {}", startDate.toLocalDate(), endDate.toLocalDate());
 
-                BigDecimal totalValue = products.stream()
-                    .map(p -> {
-                        BigDecimal price = p.getBasePrice() != null ? p.getBasePrice() : BigDecimal.ZERO;
-                        return price.multiply(new BigDecimal(p.getCurrentStock()));
-                    })
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Map<UUID, ProductDayTotals> totals = sumProductDays(startDate, endDate);
 
-                // Total restocked in date range
-                int totalRestocked = products.stream()
-                    .mapToInt(product ->
-                        restockItemRepository.findByProduct(product).stream()
-                            .filter(item -> {
-                                var log = item.getRestockingLog();
-                                return log.getTimestamp().isAfter(startDate) && log.getTimestamp().isBefore(endDate);
-                            })
-                            .mapToInt(item -> item.getQuantity())
-                            .sum()
-                    )
-                    .sum();
-
-                // Procurement cost in date range
-                BigDecimal procurementCost = products.stream()
-                    .map(product ->
-                        procurementItemRepository.findByProduct(product).stream()
-                            .filter(item -> {
-                                var batch = item.getBatch();
-                                return batch.getPurchaseDate().isAfter(startDate) && batch.getPurchaseDate().isBefore(endDate);
-                            })
-                            .map(item -> item.getUnitCost().multiply(new BigDecimal(item.getQuantity())))
-                            .reduce(BigDecimal.ZERO, BigDecimal::add)
-                    )
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return productRepository.findAll().stream()
+            .collect(Collectors.groupingBy(Product::getCategory))
+            .entrySet().stream()
+            .map(category -> {
+                int totalStock = 0;
+                BigDecimal totalValue = BigDecimal.ZERO;
+                ProductDayTotals activity = ProductDayTotals.NONE;
+                for (Product product : category.getValue()) {
+                    totalStock += product.getCurrentStock();
+                    if (product.getBasePrice() != null) {
+                        totalValue = totalValue.add(product.getBasePrice().multiply(BigDecimal.valueOf(product.getCurrentStock())));
+                    }
+                    activity = activity.plus(totals.getOrDefault(product.getId(), ProductDayTotals.NONE));
+                }
 
                 return CategoryBreakdownDTO.builder()
-                    .category(category)
-                    .productCount(productCount)
+                    .category(category.getKey())
+                    .productCount(category.getValue().size())
                     .totalStock(totalStock)
                     .totalValue(totalValue)
-                    .totalRestocked(totalRestocked)
-                    .procurementCost(procurementCost)
+                    .totalRestocked((int) activity.restocked())
+                    .procurementCost(activity.procurementCost())
                     .build();
             })
             .sorted((a, b) -> b.getTotalValue().compareTo(a.getTotalValue()))
             .collect(Collectors.toList());
     }
+
+    private Map<UUID, ProductDayTotals> sumProductDays(LocalDateTime startDate, LocalDateTime endDate) {
+        Map<UUID, ProductDayTotals> totals = new HashMap<>();
+        for (Map<UUID, ProductDayTotals> day : dailyAnalyticsCache.getProductDays(startDate.toLocalDate(), endDate.toLocalDate())) {
+            day.forEach((productId, product) -> totals.merge(productId, product, ProductDayTotals::plus));
+        }
+        return totals;
+    }
 }
@@ -0,0 +1,349 @@
+package com.vending.service;
+
+import com.vending.entity.DailyMachineMetric;
+import com.vending.entity.DailyProcurementMetric;
+import com.vending.entity.DailyProductMetric;
+import com.vending.entity.StockMovement;
+import com.vending.repository.DailyMachineMetricRepository;
+import com.vending.repository.DailyProcurementMetricRepository;
+import com.vending.repository.DailyProductMetricRepository;
+import com.vending.repository.StockMovementRepository;
+import com.vending.repository.projection.DailyRestockTotal;
+import com.vending.repository.projection.ProductDayCost;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-day analytics buckets, cached by kind and date in the {@code analytics-days} cache: totals
+ * across all machines, per-machine totals and per-product totals.
+ *
+ * Closed days (before today) are cached until {@link DailyRollupService} or the stock ledger
+ * reports a change to them; today is always read fresh. A date range is served by stitching cached
+ * days with one rollup query covering the days that are missing. Concurrent requests that need the
+ * same missing range of the same kind share one load, counted in {@code singleflight.coalesced}
+ * under the kind's flight name.
+ *
+ * Each evicted day gets a new generation, shared by all kinds. A load notes the generations of its
+ * days before it queries, in its own transaction, and a day is only cached if no eviction happened
+ * since; a load that raced a commit is served to its callers but not kept.
+ */
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class DailyAnalyticsCache {
+
+    public static final String CACHE_NAME = "analytics-days";
+
+    private final DailyMachineMetricRepository dailyMachineMetricRepository;
+    private final DailyProcurementMetricRepository dailyProcurementMetricRepository;
+    private final DailyProductMetricRepository dailyProductMetricRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final Cache cache;
+    private final TransactionTemplate loadTransaction;
+    // Days absent here have never been evicted
+    private final Map<LocalDate, Long> generations = new ConcurrentHashMap<>();
+
+    private final Kind<DayBucket> totals;
+    private final Kind<Map<UUID, MachineDayTotals>> machines;
+    private final Kind<Map<UUID, ProductDayTotals>> products;
+    private final List<Kind<?>> kinds;
+
+    public DailyAnalyticsCache(DailyMachineMetricRepository dailyMachineMetricRepository,
+                               DailyProcurementMetricRepository dailyProcurementMetricRepository,
+                               DailyProductMetricRepository dailyProductMetricRepository,
+                               StockMovementRepository stockMovementRepository,
+                               CacheManager cacheManager,
+                               MeterRegistry meterRegistry,
+                               PlatformTransactionManager transactionManager) {
+        this.dailyMachineMetricRepository = dailyMachineMetricRepository;
+        this.dailyProcurementMetricRepository = dailyProcurementMetricRepository;
+        this.dailyProductMetricRepository = dailyProductMetricRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        // Each kind coalesces its own loads, so singleflight.coalesced is tagged per report
+        this.totals = new Kind<>("totals", new SingleFlight(CACHE_NAME, meterRegistry), this::loadBuckets);
+        this.machines = new Kind<>("machines", new SingleFlight("analytics-machine-days", meterRegistry),
+            this::loadMachineDays);
+        this.products = new Kind<>("products", new SingleFlight("analytics-product-days", meterRegistry),
+            this::loadProductDays);
+        this.kinds = List.of(totals, machines, products);
+        // A fresh snapshot: the caller's transaction may have started reading before a change was committed
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Totals across all machines for one day.
+     */
+    public record DayBucket(
+        LocalDate date,
+        int restockCount,
+        BigDecimal cashCollected,
+        long itemsRestocked,
+        long totalProductsSum,
+        long lowStockSum,
+        long outOfStockSum,
+        BigDecimal procurementCost
+    ) {}
+
+    /**
+     * One machine's restocking activity and cashless sales on one day.
+     */
+    public record MachineDayTotals(
+        int restockCount,
+        BigDecimal cashCollected,
+        long itemsRestocked,
+        int maintenanceCount,
+        BigDecimal cashlessRevenue
+    ) {
+        public static final MachineDayTotals NONE = new MachineDayTotals(0, BigDecimal.ZERO, 0, 0, BigDecimal.ZERO);
+
+        public MachineDayTotals plus(MachineDayTotals other) {
+            return new MachineDayTotals(
+                restockCount + other.restockCount,
+                cashCollected.add(other.cashCollected),
+                itemsRestocked + other.itemsRestocked,
+                maintenanceCount + other.maintenanceCount,
+                cashlessRevenue.add(other.cashlessRevenue)
+            );
+        }
+    }
+
+    /**
+     * One product's restocked and procured quantities on one day, with the procurement cost and
+     * the ledger cost of the units restocked.
+     */
+    public record ProductDayTotals(
+        long restocked,
+        long procured,
+        BigDecimal procurementCost,
+        BigDecimal costOfGoodsRestocked
+    ) {
+        public static final ProductDayTotals NONE = new ProductDayTotals(0, 0, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        public ProductDayTotals plus(ProductDayTotals other) {
+            return new ProductDayTotals(
+                restocked + other.restocked,
+                procured + other.procured,
+                procurementCost.add(other.procurementCost),
+                costOfGoodsRestocked.add(other.costOfGoodsRestocked)
+            );
+        }
+    }
+
+    /**
+     * Get one bucket per day for the inclusive range, in date order.
+     */
+    public List<DayBucket> getDays(LocalDate startDate, LocalDate endDate) {
+        return get(totals, startDate, endDate);
+    }
+
+    /**
+     * Get the per-machine totals of each day in the inclusive range, in date order. Machines
+     * without activity on a day are absent from its map.
+     */
+    public List<Map<UUID, MachineDayTotals>> getMachineDays(LocalDate startDate, LocalDate endDate) {
+        return get(machines, startDate, endDate);
+    }
+
+    /**
+     * Get the per-product totals of each day in the inclusive range, in date order. Products
+     * without activity on a day are absent from its map.
+     */
+    public List<Map<UUID, ProductDayTotals>> getProductDays(LocalDate startDate, LocalDate endDate) {
+        return get(products, startDate, endDate);
+    }
+
+    /**
+     * Drop cached buckets of every kind for days whose rollup rows changed.
+     */
+    public void evict(Collection<LocalDate> days) {
+        for (LocalDate day : days) {
+            generations.compute(day, (key, generation) -> {
+                kinds.forEach(kind -> cache.evict(kind.key(day)));
+                return generation == null ? 1L : generation + 1;
+            });
+        }
+    }
+
+    /**
+     * Get the generation of each day in the inclusive range that has been evicted at least once.
+     * Results derived from the range are still current while this stays equal.
+     */
+    public Map<LocalDate, Long> generationsOf(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, Long> result = new HashMap<>();
+        startDate.datesUntil(endDate.plusDays(1)).forEach(day -> {
+            Long generation = generations.get(day);
+            if (generation != null) {
+                result.put(day, generation);
+            }
+        });
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> get(Kind<T> kind, LocalDate startDate, LocalDate endDate) {
+        LocalDate today = LocalDate.now();
+        List<T> result = new ArrayList<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            Cache.ValueWrapper cached = day.isBefore(today) ? cache.get(kind.key(day)) : null;
+            result.add(cached != null ? (T) cached.get() : null);
+            if (cached == null) {
+                if (firstMissing == null) {
+                    firstMissing = day;
+                }
+                lastMissing = day;
+            }
+        }
+
+        if (firstMissing == null) {
+            return result;
+        }
+
+        LocalDate from = firstMissing;
+        LocalDate to = lastMissing;
+        LoadedDays<T> loaded = kind.loads().execute(List.of(from, to), () -> load(kind, from, to));
+        for (int i = 0; i < result.size(); i++) {
+            if (result.get(i) == null) {
+                LocalDate day = startDate.plusDays(i);
+                T bucket = loaded.buckets().get(day);
+                if (day.isBefore(today)) {
+                    putIfUnchanged(kind.key(day), bucket, loaded.generations().get(day));
+                }
+                result.set(i, bucket);
+            }
+        }
+        return result;
+    }
+
+    // Checked and put under the day's map entry, so an eviction can't slip in between
+    private void putIfUnchanged(DayKey key, Object bucket, Long loadedGeneration) {
+        generations.compute(key.date(), (day, generation) -> {
+            if (Objects.equals(generation, loadedGeneration)) {
+                cache.put(key, bucket);
+            }
+            return generation;
+        });
+    }
+
+    /**
+     * A kind of per-day bucket and how to load a range of them; the loader returns an entry for every day.
+     */
+    private record Kind<T>(String name, SingleFlight loads, BiFunction<LocalDate, LocalDate, Map<LocalDate, T>> loader) {
+
+        DayKey key(LocalDate day) {
+            return new DayKey(name, day);
+        }
+    }
+
+    private record DayKey(String kind, LocalDate date) {}
+
+    private record LoadedDays<T>(Map<LocalDate, Long> generations, Map<LocalDate, T> buckets) {}
+
+    private <T> LoadedDays<T> load(Kind<T> kind, LocalDate startDate, LocalDate endDate) {
+        return new LoadedDays<>(generationsOf(startDate, endDate),
+            loadTransaction.execute(status -> kind.loader().apply(startDate, endDate)));
+    }
+
+    private Map<LocalDate, DayBucket> loadBuckets(LocalDate startDate, LocalDate endDate) {
+        log.debug("Loading analytics day buckets from {} to {}", startDate, endDate);
+
+        Map<LocalDate, DailyRestockTotal> restockByDate = dailyMachineMetricRepository.sumByDay(startDate, endDate)
+            .stream()
+            .collect(Collectors.toMap(DailyRestockTotal::date, Function.identity()));
+
+        Map<LocalDate, BigDecimal> costByDate = dailyProcurementMetricRepository
+            .findByMetricDateBetweenOrderByMetricDate(startDate, endDate)
+            .stream()
+            .collect(Collectors.toMap(DailyProcurementMetric::getMetricDate, DailyProcurementMetric::getTotalAmount));
+
+        return startDate.datesUntil(endDate.plusDays(1))
+            .collect(Collectors.toMap(Function.identity(), day -> {
+                DailyRestockTotal restock = restockByDate.get(day);
+                BigDecimal cost = costByDate.getOrDefault(day, BigDecimal.ZERO);
+                if (restock == null) {
+                    return new DayBucket(day, 0, BigDecimal.ZERO, 0, 0, 0, 0, cost);
+                }
+                return new DayBucket(
+                    day,
+                    restock.restockCount().intValue(),
+                    restock.cashCollected(),
+                    restock.itemsRestocked(),
+                    restock.totalProductsSum(),
+                    restock.lowStockSum(),
+                    restock.outOfStockSum(),
+                    cost
+                );
+            }));
+    }
+
+    private Map<LocalDate, Map<UUID, MachineDayTotals>> loadMachineDays(LocalDate startDate, LocalDate endDate) {
+        log.debug("Loading per-machine analytics days from {} to {}", startDate, endDate);
+
+        Map<LocalDate, Map<UUID, MachineDayTotals>> days = emptyDays(startDate, endDate);
+        for (DailyMachineMetric metric : dailyMachineMetricRepository.findByMetricDateBetween(startDate, endDate)) {
+            days.get(metric.getMetricDate()).put(metric.getMachineId(), new MachineDayTotals(
+                metric.getRestockCount(),
+                metric.getCashCollected(),
+                metric.getItemsRestocked(),
+                metric.getMaintenanceCount(),
+                metric.getCashlessRevenue()
+            ));
+        }
+        return days;
+    }
+
+    private Map<LocalDate, Map<UUID, ProductDayTotals>> loadProductDays(LocalDate startDate, LocalDate endDate) {
+        log.debug("Loading per-product analytics days from {} to {}", startDate, endDate);
+
+        Map<LocalDate, Map<UUID, ProductDayTotals>> days = emptyDays(startDate, endDate);
+        for (DailyProductMetric metric : dailyProductMetricRepository.findByMetricDateBetween(startDate, endDate)) {
+            days.get(metric.getMetricDate()).put(metric.getProductId(), new ProductDayTotals(
+                metric.getRestockedQuantity(),
+                metric.getProcuredQuantity(),
+                metric.getProcurementCost(),
+                BigDecimal.ZERO
+            ));
+        }
+
+        // Cost of goods from the ledger: each restock was costed at the average when it was taken out
+        List<ProductDayCost> restockCosts = stockMovementRepository.sumCostByDayAndProduct(
+            StockMovement.MovementType.RESTOCK, startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+        for (ProductDayCost cost : restockCosts) {
+            days.get(cost.date()).merge(cost.productId(),
+                new ProductDayTotals(0, 0, BigDecimal.ZERO, cost.cost().negate()), ProductDayTotals::plus);
+        }
+        return days;
+    }
+
+    private static <T> Map<LocalDate, Map<UUID, T>> emptyDays(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, Map<UUID, T>> days = new HashMap<>();
+        startDate.datesUntil(endDate.plusDays(1)).forEach(day -> days.put(day, new HashMap<>()));
+        return days;
+    }
+}
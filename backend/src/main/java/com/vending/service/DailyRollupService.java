@@ -0,0 +1,222 @@
+package com.vending.service;
+
+import com.vending.entity.SalesRecord;
+import com.vending.repository.DailyMachineMetricRepository;
+import com.vending.repository.DailyProcurementMetricRepository;
+import com.vending.repository.DailyProductMetricRepository;
+import com.vending.repository.RollupDeltas;
+import com.vending.repository.RollupDeltas.MachineDay;
+import com.vending.repository.RollupDeltas.MachineMetrics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the daily_*_metrics rollup tables used by analytics.
+ *
+ * Writes to restocking logs, procurement batches and machine-linked sales records are reported by
+ * {@link com.vending.entity.DailyRollupListener}. The first time a transaction writes a log or batch,
+ * what it and its items add to the rollups is read and locked; once the session's last flush before
+ * commit has run, it is read again and only the difference is added to the rollup rows. Sales records
+ * are single rows, so their difference is taken from the values they were loaded and written with.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class DailyRollupService {
+
+    private static final int REBUILD_CHUNK_DAYS = 31;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final DailyMachineMetricRepository dailyMachineMetricRepository;
+    private final DailyProductMetricRepository dailyProductMetricRepository;
+    private final DailyProcurementMetricRepository dailyProcurementMetricRepository;
+    private final DailyAnalyticsCache dailyAnalyticsCache;
+    private final TransactionTemplate transactionTemplate;
+
+    // Rollup changes of the sessions currently writing, until their transaction completes
+    private final Map<SharedSessionContractImplementor, PendingRollup> pendingRollups = new ConcurrentHashMap<>();
+
+    /**
+     * Called before a restocking log or one of its items is written. The first call in a
+     * transaction locks the log and remembers what it adds to the rollups before the change.
+     * A log that doesn't exist yet is recorded as adding nothing.
+     */
+    public void beforeRestockingLogChange(UUID logId) {
+        PendingRollup pending = currentPendingRollup();
+        if (pending != null && logId != null && !pending.restockingLogs.containsKey(logId)) {
+            pending.restockingLogs.put(logId, dailyMachineMetricRepository.lockRestockingLogContribution(logId));
+        }
+    }
+
+    /**
+     * Called before a procurement batch or one of its items is written, like
+     * {@link #beforeRestockingLogChange}
+     */
+    public void beforeProcurementBatchChange(UUID batchId) {
+        PendingRollup pending = currentPendingRollup();
+        if (pending != null && batchId != null && !pending.procurementBatches.containsKey(batchId)) {
+            pending.procurementBatches.put(batchId, dailyMachineMetricRepository.lockProcurementBatchContribution(batchId));
+        }
+    }
+
+    /**
+     * Called after a new restocking log was inserted, which added nothing to the rollups before
+     */
+    public void restockingLogCreated(UUID logId) {
+        PendingRollup pending = currentPendingRollup();
+        if (pending != null) {
+            pending.restockingLogs.putIfAbsent(logId, new RollupDeltas());
+        }
+    }
+
+    /**
+     * Called after a new procurement batch was inserted, which added nothing to the rollups before
+     */
+    public void procurementBatchCreated(UUID batchId) {
+        PendingRollup pending = currentPendingRollup();
+        if (pending != null) {
+            pending.procurementBatches.putIfAbsent(batchId, new RollupDeltas());
+        }
+    }
+
+    /**
+     * Called after a sales record was inserted, updated or deleted. Its approved amount counts as
+     * cashless revenue of the machine it is linked to, if any, on its settlement date: what it
+     * counted for as loaded is taken away and, unless it was deleted, what it counts for now is added.
+     */
+    public void salesRecordWritten(SalesRecord record, boolean deleted) {
+        PendingRollup pending = currentPendingRollup();
+        if (pending == null) {
+            return;
+        }
+        if (record.getLoadedMachineId() != null) {
+            pending.salesRecords.add(new MachineDay(record.getLoadedSettlementDate(), record.getLoadedMachineId()),
+                    MachineMetrics.cashless(orZero(record.getLoadedApprovedAmount()).negate()));
+        }
+        if (!deleted && record.getMachineId() != null) {
+            pending.salesRecords.add(new MachineDay(record.getSettlementDate(), record.getMachineId()),
+                    MachineMetrics.cashless(orZero(record.getApprovedAmount())));
+        }
+    }
+
+    /**
+     * Rebuild the rollups for an inclusive date range from the raw tables.
+     * Runs in the background, one transaction per chunk of days.
+     */
+    @Async
+    public void rebuild(LocalDate startDate, LocalDate endDate) {
+        log.info("Rebuilding daily rollups from {} to {}", startDate, endDate);
+
+        LocalDate chunkStart = startDate;
+        while (!chunkStart.isAfter(endDate)) {
+            LocalDate chunkEnd = chunkStart.plusDays(REBUILD_CHUNK_DAYS);
+            if (chunkEnd.isAfter(endDate.plusDays(1))) {
+                chunkEnd = endDate.plusDays(1);
+            }
+
+            LocalDate from = chunkStart;
+            LocalDate to = chunkEnd;
+            transactionTemplate.executeWithoutResult(status -> refreshRange(from, to));
+            dailyAnalyticsCache.evict(from.datesUntil(to).toList());
+            chunkStart = chunkEnd;
+        }
+
+        log.info("Finished rebuilding daily rollups from {} to {}", startDate, endDate);
+    }
+
+    /**
+     * Replace the rollup rows for days in [startDate, endDate) with fresh aggregates.
+     */
+    private void refreshRange(LocalDate startDate, LocalDate endDate) {
+        LocalDateTime start = startDate.atStartOfDay();
+        LocalDateTime end = endDate.atStartOfDay();
+
+        dailyMachineMetricRepository.deleteRange(startDate, endDate);
+        dailyMachineMetricRepository.insertRange(start, end);
+
+        dailyProductMetricRepository.deleteRange(startDate, endDate);
+        dailyProductMetricRepository.insertRange(start, end);
+
+        dailyProcurementMetricRepository.deleteRange(startDate, endDate);
+        dailyProcurementMetricRepository.insertRange(start, end);
+    }
+
+    private PendingRollup currentPendingRollup() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        return pendingRollups.computeIfAbsent(session, key -> {
+            PendingRollup created = new PendingRollup(key);
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) created);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) created);
+            return created;
+        });
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    /**
+     * Runs inside the transaction after Hibernate's last flush, so every write of the
+     * session has reached the tables by the time the logs and batches are read again
+     */
+    @RequiredArgsConstructor
+    private class PendingRollup implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final SharedSessionContractImplementor session;
+        // What each written log and batch added to the rollups before this transaction
+        private final Map<UUID, RollupDeltas> restockingLogs = new HashMap<>();
+        private final Map<UUID, RollupDeltas> procurementBatches = new HashMap<>();
+        private final RollupDeltas salesRecords = new RollupDeltas();
+        private Set<LocalDate> changedDays = Set.of();
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            RollupDeltas deltas = new RollupDeltas();
+            deltas.addAll(salesRecords);
+            restockingLogs.forEach((logId, before) -> {
+                deltas.addAll(dailyMachineMetricRepository.lockRestockingLogContribution(logId));
+                deltas.subtractAll(before);
+            });
+            procurementBatches.forEach((batchId, before) -> {
+                deltas.addAll(dailyMachineMetricRepository.lockProcurementBatchContribution(batchId));
+                deltas.subtractAll(before);
+            });
+
+            dailyMachineMetricRepository.applyDeltas(deltas);
+            changedDays = deltas.days();
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            pendingRollups.remove(this.session);
+            if (success) {
+                dailyAnalyticsCache.evict(changedDays);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.vending.service;
+
+import com.vending.dto.CursorPageDTO;
+import com.vending.exception.BadRequestException;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Shared steps of the keyset-paginated listings: sizing the query and cutting the page
+ */
+final class KeysetPages {
+
+    private KeysetPages() {
+    }
+
+    static Limit limit(int limit, int maxPageSize) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new BadRequestException("Page size must be between 1 and " + maxPageSize);
+        }
+        // One extra row tells whether another page follows
+        return Limit.of(limit + 1);
+    }
+
+    static <T, R> CursorPageDTO<R> toPage(List<T> rows, int limit, Function<T, ?> sortValue,
+                                          Function<T, UUID> id, Function<T, R> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<T> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            T last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(sortValue.apply(last).toString(), id.apply(last)).encode();
+        }
+        return CursorPageDTO.<R>builder()
+                .items(page.stream().map(mapper).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.vending.service;
+
+import com.vending.repository.VendingMachineRepository;
+import com.vending.repository.projection.MachinePosSerial;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory lookup from cashless POS serial number to machine id, used to link imported
+ * settlement lines to machines without a query per line. Built on first use and dropped
+ * whenever a machine is written (see {@link com.vending.entity.PosSerialIndexListener}).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PosSerialIndex {
+
+    private final VendingMachineRepository vendingMachineRepository;
+
+    // Guards machinesBySerial and generation together, so a load can't publish over a newer invalidation
+    private final Object publishLock = new Object();
+
+    private volatile Map<String, UUID> machinesBySerial;
+
+    // Bumped by every invalidation; a load publishes its index only if this hasn't moved since it began
+    private long generation;
+
+    /**
+     * Get the id of the machine with this POS serial number, or null if none matches
+     */
+    public UUID findMachineId(String posSerialNumber) {
+        if (posSerialNumber == null || posSerialNumber.isBlank()) {
+            return null;
+        }
+        Map<String, UUID> index = machinesBySerial;
+        if (index == null) {
+            index = load();
+        }
+        return index.get(normalize(posSerialNumber));
+    }
+
+    /**
+     * Drop the index so the next lookup rebuilds it. Inside a transaction this happens again
+     * after completion, so lookups never keep serials that were rolled back or not yet committed.
+     */
+    public void invalidate() {
+        drop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    drop();
+                }
+            });
+        }
+    }
+
+    private void drop() {
+        synchronized (publishLock) {
+            generation++;
+            machinesBySerial = null;
+        }
+    }
+
+    /**
+     * Build the index from the database. A load that raced with an invalidation still answers its
+     * own lookup, but isn't kept, since it may have read machines from before the change.
+     */
+    private synchronized Map<String, UUID> load() {
+        long loadGeneration;
+        synchronized (publishLock) {
+            Map<String, UUID> index = machinesBySerial;
+            if (index != null) {
+                return index;
+            }
+            loadGeneration = generation;
+        }
+
+        Map<String, UUID> index = new HashMap<>();
+        for (MachinePosSerial machine : vendingMachineRepository.findAllPosSerialNumbers()) {
+            UUID previous = index.put(normalize(machine.posSerialNumber()), machine.machineId());
+            if (previous != null) {
+                log.warn("POS serial {} is assigned to machines {} and {}", machine.posSerialNumber(),
+                        previous, machine.machineId());
+            }
+        }
+        synchronized (publishLock) {
+            if (generation == loadGeneration) {
+                machinesBySerial = index;
+            }
+        }
+        log.debug("Loaded {} POS serial numbers", index.size());
+        return index;
+    }
+
+    /**
+     * Canonical form of a POS serial number: trimmed and upper case, empty for none
+     */
+    public static String normalize(String posSerialNumber) {
+        return posSerialNumber != null ? posSerialNumber.trim().toUpperCase(Locale.ROOT) : "";
+    }
+}
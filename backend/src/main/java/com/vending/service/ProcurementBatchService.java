@@ -1,5 +1,6 @@
 package com.vending.service;
 
+import com.vending.dto.CursorPageDTO;
 import com.vending.dto.ProcurementBatchDto;
 import com.vending.dto.ProcurementItemDto;
 import com.vending.dto.ReceiptImageDto;
@@ -7,23 +8,41 @@ import com.vending.entity.ProcurementBatch;
 import com.vending.entity.ProcurementItem;
 import com.vending.entity.Product;
 import com.vending.entity.ReceiptImage;
+import com.vending.exception.BadRequestException;
 import com.vending.repository.ProcurementBatchRepository;
 import com.vending.repository.ProductRepository;
+import com.vending.repository.projection.ProcurementBatchSummary;
+import com.vending.service.StockLedgerService.ReceiptLine;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProcurementBatchService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final ProcurementBatchRepository procurementBatchRepository;
     private final ProductRepository productRepository;
+    private final StockLedgerService stockLedgerService;
+    private final StockMutationRetry stockMutationRetry;
+    private final VendorService vendorService;
 
     @Transactional
     public List<ProcurementBatchDto> getAllBatches() {
@@ -33,6 +52,23 @@ public class ProcurementBatchService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get a page of batch headers with their stored totals, newest first. Items and receipt
+     * images are only returned by {@link #getBatchById(UUID)}.
+     */
+    @Transactional
+    public CursorPageDTO<ProcurementBatchSummary> getBatchSummaryPage(String cursor, int limit) {
+        Limit pageLimit = KeysetPages.limit(limit, MAX_PAGE_SIZE);
+        List<ProcurementBatchSummary> rows;
+        if (cursor == null) {
+            rows = procurementBatchRepository.findFirstSummaryPage(pageLimit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = procurementBatchRepository.findSummaryPageAfter(parseCursorDate(after), after.id(), pageLimit);
+        }
+        return KeysetPages.toPage(rows, limit, ProcurementBatchSummary::purchaseDate, ProcurementBatchSummary::id, Function.identity());
+    }
+
     @Transactional
     public ProcurementBatchDto getBatchById(UUID id) {
         ProcurementBatch batch = procurementBatchRepository.findById(id)
@@ -53,10 +89,27 @@ public class ProcurementBatchService {
         return procurementBatchRepository.findAllSuppliers();
     }
 
-    @Transactional
+    // Writes that change stock run through StockMutationRetry, which owns their transaction and
+    // reruns them if a concurrent stock change wins the race
+
     public ProcurementBatchDto createBatch(ProcurementBatchDto dto) {
+        return stockMutationRetry.execute("procurement-create", () -> saveNewBatch(dto));
+    }
+
+    public ProcurementBatchDto updateBatch(UUID id, ProcurementBatchDto dto) {
+        return stockMutationRetry.execute("procurement-update", () -> saveBatchChanges(id, dto));
+    }
+
+    public void deleteBatch(UUID id) {
+        stockMutationRetry.execute("procurement-delete", () -> {
+            removeBatch(id);
+            return null;
+        });
+    }
+
+    private ProcurementBatchDto saveNewBatch(ProcurementBatchDto dto) {
         ProcurementBatch batch = ProcurementBatch.builder()
-                .purchaseDate(dto.purchaseDate() != null ? dto.purchaseDate() : LocalDateTime.now())
+                .purchaseDate(purchaseDate(dto))
                 .supplier(dto.supplier())
                 .supplierContact(dto.supplierContact())
                 .invoiceNumber(dto.invoiceNumber())
@@ -65,9 +118,9 @@ public class ProcurementBatchService {
 
         // Add items
         if (dto.items() != null) {
+            Map<UUID, Product> products = findProducts(dto.items());
             for (ProcurementItemDto itemDto : dto.items()) {
-                Product product = productRepository.findById(itemDto.productId())
-                        .orElseThrow(() -> new RuntimeException("Product not found with id: " + itemDto.productId()));
+                Product product = products.get(itemDto.productId());
 
                 ProcurementItem item = ProcurementItem.builder()
                         .product(product)
@@ -98,31 +151,31 @@ public class ProcurementBatchService {
 
         ProcurementBatch saved = procurementBatchRepository.save(batch);
 
-        // Update product stock quantities
-        updateProductStock(saved);
+        // Receive the items into stock
+        syncStock(saved);
+        refreshVendorStats(saved);
 
         return toDto(saved);
     }
 
-    @Transactional
-    public ProcurementBatchDto updateBatch(UUID id, ProcurementBatchDto dto) {
+    private ProcurementBatchDto saveBatchChanges(UUID id, ProcurementBatchDto dto) {
         ProcurementBatch batch = procurementBatchRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Procurement batch not found with id: " + id));
 
-        batch.setPurchaseDate(dto.purchaseDate());
+        batch.setPurchaseDate(purchaseDate(dto));
         batch.setSupplier(dto.supplier());
         batch.setSupplierContact(dto.supplierContact());
         batch.setInvoiceNumber(dto.invoiceNumber());
         batch.setNotes(dto.notes());
 
         // Clear existing items
-        batch.getItems().clear();
+        batch.clearItems();
 
         // Add new items
         if (dto.items() != null) {
+            Map<UUID, Product> products = findProducts(dto.items());
             for (ProcurementItemDto itemDto : dto.items()) {
-                Product product = productRepository.findById(itemDto.productId())
-                        .orElseThrow(() -> new RuntimeException("Product not found with id: " + itemDto.productId()));
+                Product product = products.get(itemDto.productId());
 
                 ProcurementItem item = ProcurementItem.builder()
                         .product(product)
@@ -155,26 +208,83 @@ public class ProcurementBatchService {
         }
 
         ProcurementBatch updated = procurementBatchRepository.save(batch);
+
+        // Reverse stock the old items added and receive the new ones
+        syncStock(updated);
+        refreshVendorStats(updated);
+
         return toDto(updated);
     }
 
-    @Transactional
-    public void deleteBatch(UUID id) {
-        if (!procurementBatchRepository.existsById(id)) {
-            throw new RuntimeException("Procurement batch not found with id: " + id);
+    private void removeBatch(UUID id) {
+        ProcurementBatch batch = procurementBatchRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Procurement batch not found with id: " + id));
+        stockLedgerService.syncReceipts(id, null, List.of(), "Procurement batch deleted");
+        procurementBatchRepository.delete(batch);
+        refreshVendorStats(batch);
+    }
+
+    private void refreshVendorStats(ProcurementBatch batch) {
+        // Only the batch's own vendor has statistics that changed
+        if (batch.getVendor() != null) {
+            vendorService.refreshPurchaseStats(batch.getVendor().getId());
+        }
+    }
+
+    /**
+     * Load every product referenced by the items with a single query
+     */
+    private Map<UUID, Product> findProducts(List<ProcurementItemDto> items) {
+        Set<UUID> productIds = items.stream()
+                .map(ProcurementItemDto::productId)
+                .collect(Collectors.toSet());
+
+        Map<UUID, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        for (UUID productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new RuntimeException("Product not found with id: " + productId);
+            }
         }
-        procurementBatchRepository.deleteById(id);
+        return products;
+    }
+
+    private LocalDateTime parseCursorDate(KeysetCursor cursor) {
+        try {
+            return LocalDateTime.parse(cursor.sortValue());
+        } catch (DateTimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    // Stored at whole seconds, so receipts recorded now match the date read back on later edits
+    private LocalDateTime purchaseDate(ProcurementBatchDto dto) {
+        LocalDateTime purchaseDate = dto.purchaseDate() != null ? dto.purchaseDate() : LocalDateTime.now();
+        return purchaseDate.truncatedTo(ChronoUnit.SECONDS);
     }
 
-    private void updateProductStock(ProcurementBatch batch) {
+    private void syncStock(ProcurementBatch batch) {
+        // Calculate total units per product (quantity of packs * units per pack) and what they cost
+        Map<UUID, Integer> unitsByProduct = new HashMap<>();
+        Map<UUID, BigDecimal> costByProduct = new HashMap<>();
         for (ProcurementItem item : batch.getItems()) {
-            Product product = item.getProduct();
-            // Calculate total units: quantity of packs * units per pack
-            int totalUnits = item.getQuantity() * item.getPackQuantity();
-            int newStock = product.getCurrentStock() + totalUnits;
-            product.setCurrentStock(newStock);
-            productRepository.save(product);
+            UUID productId = item.getProduct().getId();
+            unitsByProduct.merge(productId, item.getQuantity() * item.getPackQuantity(), Integer::sum);
+            costByProduct.merge(productId, item.getTotalCost(), BigDecimal::add);
         }
+        List<ReceiptLine> receipts = unitsByProduct.entrySet().stream()
+                .map(entry -> {
+                    BigDecimal unitCost = costByProduct.get(entry.getKey()).divide(
+                            BigDecimal.valueOf(entry.getValue()), StockLedgerService.COST_SCALE, RoundingMode.HALF_UP);
+                    return new ReceiptLine(entry.getKey(), entry.getValue(), unitCost);
+                })
+                .toList();
+
+        String notes = batch.getInvoiceNumber() != null
+                ? "Procurement batch, invoice " + batch.getInvoiceNumber()
+                : "Procurement batch";
+        stockLedgerService.syncReceipts(batch.getId(), batch.getPurchaseDate(), receipts, notes);
     }
 
     private ProcurementBatchDto toDto(ProcurementBatch batch) {
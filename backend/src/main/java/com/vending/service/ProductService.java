@@ -0,0 +1,165 @@
+package com.vending.service;
+
+import com.vending.dto.ProductDto;
+import com.vending.entity.Product;
+import com.vending.entity.ProductBrand;
+import com.vending.entity.ProductCategory;
+import com.vending.exception.ConflictException;
+import com.vending.exception.DuplicateResourceException;
+import com.vending.exception.ResourceNotFoundException;
+import com.vending.repository.ProductBrandRepository;
+import com.vending.repository.ProductCategoryRepository;
+import com.vending.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * Creates and updates products. A stock figure given with either goes through the
+ * {@link StockLedgerService} as an adjustment, like every other stock change.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductService {
+
+    private final ProductRepository productRepository;
+    private final ProductCategoryRepository productCategoryRepository;
+    private final ProductBrandRepository productBrandRepository;
+    private final StockLedgerService stockLedgerService;
+    private final StockMutationRetry stockMutationRetry;
+
+    @Transactional
+    public Product createProduct(ProductDto productDto) {
+        // Check for duplicate name
+        if (productDto.name() != null && productRepository.findByName(productDto.name()).isPresent()) {
+            throw new DuplicateResourceException("Product", "name", productDto.name());
+        }
+        // Check for duplicate barcode
+        if (productDto.barcode() != null && !productDto.barcode().isEmpty()
+                && productRepository.findByBarcode(productDto.barcode()).isPresent()) {
+            throw new DuplicateResourceException("Product", "barcode", productDto.barcode());
+        }
+        // Check for duplicate SKU
+        if (productDto.sku() != null && !productDto.sku().isEmpty()
+                && productRepository.findBySku(productDto.sku()).isPresent()) {
+            throw new DuplicateResourceException("Product", "sku", productDto.sku());
+        }
+
+        // Create Product entity from DTO
+        Product product = new Product();
+        product.setName(productDto.name());
+        product.setCategory(productDto.category());
+        product.setUnitSize(productDto.unitSize());
+        product.setCurrentStock(0);
+        product.setMinimumStock(productDto.minimumStock());
+        product.setHstExempt(productDto.hstExempt());
+        product.setBasePrice(productDto.basePrice());
+        product.setDescription(productDto.description());
+        product.setBarcode(productDto.barcode());
+        product.setSku(productDto.sku());
+        product.setActive(productDto.active());
+
+        // Handle foreign key relationships
+        if (productDto.categoryId() != null) {
+            ProductCategory category = productCategoryRepository.findById(productDto.categoryId())
+                .orElseThrow(() -> new ResourceNotFoundException("ProductCategory", "id", productDto.categoryId()));
+            product.setProductCategory(category);
+        }
+
+        if (productDto.brandId() != null) {
+            ProductBrand brand = productBrandRepository.findById(productDto.brandId())
+                .orElseThrow(() -> new ResourceNotFoundException("ProductBrand", "id", productDto.brandId()));
+            product.setProductBrand(brand);
+        }
+
+        Product saved = productRepository.save(product);
+
+        // Opening stock goes through the ledger like every other stock change
+        if (productDto.currentStock() != null && productDto.currentStock() != 0) {
+            productRepository.flush();
+            saved.setCurrentStock(stockLedgerService.adjustTo(saved.getId(), productDto.currentStock(), "Opening stock"));
+        }
+        return saved;
+    }
+
+    /**
+     * Update a product. An update carrying the version the client read is rejected if the product
+     * has changed since, and only such an update may correct the stock figure. Not transactional
+     * itself: each attempt runs in its own transaction, rerun from a fresh read if a stock movement
+     * changes the product's version meanwhile.
+     */
+    public Product updateProduct(UUID id, ProductDto productDto) {
+        return stockMutationRetry.execute("product-update", () -> applyUpdate(id, productDto));
+    }
+
+    private Product applyUpdate(UUID id, ProductDto productDto) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+
+        // Edits are made against what the client read; a stock movement since then bumps the version too
+        if (productDto.version() != null && !productDto.version().equals(product.getVersion())) {
+            throw new ConflictException("Product " + id + " was changed since it was loaded; reload it and try again");
+        }
+
+        // Check for duplicate name (excluding current product)
+        if (productDto.name() != null && !productDto.name().equals(product.getName())) {
+            productRepository.findByName(productDto.name()).ifPresent(p -> {
+                throw new DuplicateResourceException("Product", "name", productDto.name());
+            });
+        }
+
+        // Check for duplicate barcode (excluding current product)
+        if (productDto.barcode() != null && !productDto.barcode().isEmpty()
+                && !productDto.barcode().equals(product.getBarcode())) {
+            productRepository.findByBarcode(productDto.barcode()).ifPresent(p -> {
+                throw new DuplicateResourceException("Product", "barcode", productDto.barcode());
+            });
+        }
+
+        // Check for duplicate SKU (excluding current product)
+        if (productDto.sku() != null && !productDto.sku().isEmpty()
+                && !productDto.sku().equals(product.getSku())) {
+            productRepository.findBySku(productDto.sku()).ifPresent(p -> {
+                throw new DuplicateResourceException("Product", "sku", productDto.sku());
+            });
+        }
+
+        // Update basic fields
+        if (productDto.name() != null) product.setName(productDto.name());
+        if (productDto.category() != null) product.setCategory(productDto.category());
+        if (productDto.unitSize() != null) product.setUnitSize(productDto.unitSize());
+        if (productDto.basePrice() != null) product.setBasePrice(productDto.basePrice());
+        if (productDto.minimumStock() != null) product.setMinimumStock(productDto.minimumStock());
+        if (productDto.description() != null) product.setDescription(productDto.description());
+        if (productDto.barcode() != null) product.setBarcode(productDto.barcode());
+        if (productDto.sku() != null) product.setSku(productDto.sku());
+        product.setActive(productDto.active());
+        product.setHstExempt(productDto.hstExempt());
+
+        // Handle foreign key relationships
+        if (productDto.categoryId() != null) {
+            ProductCategory category = productCategoryRepository.findById(productDto.categoryId())
+                .orElseThrow(() -> new ResourceNotFoundException("ProductCategory", "id", productDto.categoryId()));
+            product.setProductCategory(category);
+        }
+
+        if (productDto.brandId() != null) {
+            ProductBrand brand = productBrandRepository.findById(productDto.brandId())
+                .orElseThrow(() -> new ResourceNotFoundException("ProductBrand", "id", productDto.brandId()));
+            product.setProductBrand(brand);
+        }
+
+        // Flushed first so its version check runs before the stock change bumps the version
+        Product saved = productRepository.saveAndFlush(product);
+
+        // A changed stock figure is a count correction, recorded as an adjustment. Without the version it
+        // was read at it may predate a receipt or restock and would reverse it, so it is left alone.
+        if (productDto.version() != null && productDto.currentStock() != null
+                && !productDto.currentStock().equals(saved.getCurrentStock())) {
+            saved.setCurrentStock(stockLedgerService.adjustTo(saved.getId(), productDto.currentStock(), "Stock count correction"));
+        }
+        return saved;
+    }
+}
@@ -0,0 +1,256 @@
+package com.vending.service;
+
+import com.vending.dto.SalesImportJobDTO;
+import com.vending.dto.SalesImportJobDTO.JobStatus;
+import com.vending.dto.SalesImportSummaryDTO;
+import com.vending.exception.BadRequestException;
+import com.vending.exception.ResourceNotFoundException;
+import com.vending.exception.SalesImportException;
+import com.vending.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs sales file imports in the background.
+ *
+ * Uploads are spooled to a temp file and handed to a bounded pool, so the request returns as soon
+ * as the file is on disk. Each job publishes the running import summary after every chunk; it can
+ * be polled or streamed as server-sent events. Queued and running jobs are held until they finish;
+ * finished jobs move to the {@code sales-import-jobs} cache, where they may be evicted.
+ */
+@Service
+@Slf4j
+public class SalesImportJobService {
+
+    public static final String CACHE_NAME = "sales-import-jobs";
+
+    private static final long EVENT_STREAM_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30);
+
+    // Suggested wait before resubmitting when the queue is full
+    private static final long RETRY_AFTER_SECONDS = 30;
+
+    private final SalesRecordService salesRecordService;
+    private final Cache jobs;
+    private final Map<UUID, Job> activeJobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public SalesImportJobService(SalesRecordService salesRecordService,
+                                 CacheManager cacheManager,
+                                 @Value("${app.sales-import.max-concurrent}") int maxConcurrent,
+                                 @Value("${app.sales-import.queue-capacity}") int queueCapacity) {
+        this.salesRecordService = salesRecordService;
+        this.jobs = cacheManager.getCache(CACHE_NAME);
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("sales-import-"));
+    }
+
+    /**
+     * Spool an uploaded CSV or XLSX file to disk and queue it for import
+     */
+    public SalesImportJobDTO submit(MultipartFile file) throws IOException {
+        String fileName = file.getOriginalFilename();
+        String lowerName = fileName != null ? fileName.toLowerCase() : "";
+        boolean csv = lowerName.endsWith(".csv");
+        // Excel files are streamed as XLSX; legacy .xls workbooks have to be saved as .xlsx first
+        if (!csv && !lowerName.endsWith(".xlsx")) {
+            throw new BadRequestException("Only .csv and .xlsx files can be imported");
+        }
+
+        Path spooled = Files.createTempFile("sales-import-", csv ? ".csv" : ".xlsx");
+        file.transferTo(spooled);
+
+        Job job = new Job(UUID.randomUUID(), fileName, spooled, csv);
+        activeJobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(job.id);
+            Files.deleteIfExists(spooled);
+            throw new ServiceUnavailableException("Too many sales imports are queued, please try again later",
+                RETRY_AFTER_SECONDS);
+        }
+
+        log.info("Queued sales import job {} for file {}", job.id, fileName);
+        return job.toDto();
+    }
+
+    /**
+     * Get import job status and progress
+     */
+    public SalesImportJobDTO getJob(UUID id) {
+        return findJob(id).toDto();
+    }
+
+    /**
+     * Stream job updates as server-sent events until the job finishes
+     */
+    public SseEmitter subscribe(UUID id) {
+        Job job = findJob(id);
+        SseEmitter emitter = new SseEmitter(EVENT_STREAM_TIMEOUT_MS);
+        emitter.onCompletion(() -> job.emitters.remove(emitter));
+        emitter.onTimeout(() -> job.emitters.remove(emitter));
+        emitter.onError(e -> job.emitters.remove(emitter));
+
+        job.emitters.add(emitter);
+        // Send the current state right away; completes the stream if the job is already done
+        job.publish(emitter);
+        return emitter;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Move a finished job to the cache. It is cached before it leaves the active map, so lookups
+     * always find it in one or the other.
+     */
+    private void retire(Job job) {
+        jobs.put(job.id, job);
+        activeJobs.remove(job.id);
+    }
+
+    private Job findJob(UUID id) {
+        Job job = activeJobs.get(id);
+        if (job == null) {
+            job = jobs.get(id, Job.class);
+        }
+        if (job == null) {
+            throw new ResourceNotFoundException("Sales import job not found with id: " + id);
+        }
+        return job;
+    }
+
+    private void run(Job job) {
+        job.status = JobStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        job.publishAll();
+
+        try {
+            SalesImportSummaryDTO summary = job.csv
+                ? salesRecordService.importFromCSV(new FileSystemResource(job.file), job.fileName, job::update)
+                : salesRecordService.importFromExcel(job.file, job.fileName, job::update);
+            job.progress = copy(summary);
+            job.status = JobStatus.COMPLETED;
+            log.info("Sales import job {} completed", job.id);
+        } catch (SalesImportException e) {
+            // Chunks committed before the failure stay imported; the summary counts them and names the failing line
+            log.error("Sales import job {} failed", job.id, e);
+            job.progress = copy(e.getSummary());
+            job.error = e.getMessage();
+            job.status = JobStatus.FAILED;
+        } catch (Exception e) {
+            log.error("Sales import job {} failed", job.id, e);
+            job.error = e.getMessage();
+            job.status = JobStatus.FAILED;
+        } finally {
+            job.completedAt = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(job.file);
+            } catch (IOException e) {
+                log.warn("Could not delete spooled import file {}", job.file, e);
+            }
+            retire(job);
+            job.publishAll();
+        }
+    }
+
+    private static SalesImportSummaryDTO copy(SalesImportSummaryDTO summary) {
+        return SalesImportSummaryDTO.builder()
+            .fileName(summary.getFileName())
+            .source(summary.getSource())
+            .format(summary.getFormat())
+            .totalRows(summary.getTotalRows())
+            .importedCount(summary.getImportedCount())
+            .updatedCount(summary.getUpdatedCount())
+            .unchangedCount(summary.getUnchangedCount())
+            .rejectedCount(summary.getRejectedCount())
+            .alreadyImported(summary.isAlreadyImported())
+            .rejectedLines(new ArrayList<>(summary.getRejectedLines()))
+            .failedAtLine(summary.getFailedAtLine())
+            .error(summary.getError())
+            .build();
+    }
+
+    private static final class Job {
+        private final UUID id;
+        private final String fileName;
+        private final Path file;
+        private final boolean csv;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile SalesImportSummaryDTO progress;
+        private volatile String error;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+
+        private Job(UUID id, String fileName, Path file, boolean csv) {
+            this.id = id;
+            this.fileName = fileName;
+            this.file = file;
+            this.csv = csv;
+        }
+
+        private void update(SalesImportSummaryDTO summary) {
+            progress = copy(summary);
+            publishAll();
+        }
+
+        private void publishAll() {
+            emitters.forEach(this::publish);
+        }
+
+        private void publish(SseEmitter emitter) {
+            boolean finished = status == JobStatus.COMPLETED || status == JobStatus.FAILED;
+            try {
+                emitter.send(SseEmitter.event()
+                    .name(finished ? "complete" : "progress")
+                    .data(toDto()));
+                if (finished) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the emitter callbacks remove it
+                emitters.remove(emitter);
+            }
+        }
+
+        private SalesImportJobDTO toDto() {
+            return SalesImportJobDTO.builder()
+                .id(id)
+                .fileName(fileName)
+                .status(status)
+                .progress(progress)
+                .error(error)
+                .submittedAt(submittedAt)
+                .startedAt(startedAt)
+                .completedAt(completedAt)
+                .build();
+        }
+    }
+}
@@ -1,28 +1,74 @@
 package com.vending.service;
 
+import com.vending.dto.CursorPageDTO;
+import com.vending.dto.SalesImportSummaryDTO;
 import com.vending.dto.SalesRecordDTO;
+import com.vending.entity.SalesImportFile;
 import com.vending.entity.SalesRecord;
+import com.vending.exception.BadRequestException;
 import com.vending.exception.ResourceNotFoundException;
+import com.vending.exception.SalesImportException;
+import com.vending.repository.SalesImportFileRepository;
 import com.vending.repository.SalesRecordRepository;
+import com.vending.repository.projection.SalesRecordSummary;
+import com.vending.service.settlement.SettlementCells;
+import com.vending.service.settlement.SettlementCsvTokenizer;
+import com.vending.service.settlement.SettlementFormat;
+import com.vending.service.settlement.SettlementFormatRegistry;
+import com.vending.service.settlement.SettlementRow;
+import com.vending.service.settlement.SettlementRowParser;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.hibernate.Session;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
-import java.io.BufferedReader;
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,9 +77,20 @@ import java.util.stream.Collectors;
 public class SalesRecordService {
 
     private final SalesRecordRepository salesRecordRepository;
+    private final SalesImportFileRepository salesImportFileRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SettlementFormatRegistry settlementFormats;
+    private final PosSerialIndex posSerialIndex;
 
-    private static final DateTimeFormatter CSV_DATE_FORMATTER = DateTimeFormatter.ofPattern("M/d/yyyy");
-    private static final String[] CSV_EXPECTED_HEADERS = {"Settlement Date", "# of Batches", "# Completed", "# Sur", "# Incomplete", "Approved Amount", "Fee Amount"};
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+    private static final int IMPORT_BATCH_SIZE = 100;
+    private static final int MAX_REPORTED_REJECTIONS = 1000;
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
 
     public List<SalesRecordDTO> getAllSalesRecords() {
         return salesRecordRepository.findAllByOrderBySettlementDateDesc().stream()
@@ -41,6 +98,37 @@ public class SalesRecordService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get a page of sales records, newest first. Pages are read by keyset on (settlement date, id),
+     * so later pages cost the same as the first.
+     */
+    public CursorPageDTO<SalesRecordDTO> getSalesRecordPage(String cursor, int limit) {
+        Limit pageLimit = KeysetPages.limit(limit, MAX_PAGE_SIZE);
+        List<SalesRecord> rows;
+        if (cursor == null) {
+            rows = salesRecordRepository.findFirstPage(pageLimit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = salesRecordRepository.findPageAfter(parseCursorDate(after), after.id(), pageLimit);
+        }
+        return KeysetPages.toPage(rows, limit, SalesRecord::getSettlementDate, SalesRecord::getId, this::convertToDTO);
+    }
+
+    /**
+     * Get a page of sales record summaries, newest first, reading only the listed columns
+     */
+    public CursorPageDTO<SalesRecordSummary> getSalesRecordSummaryPage(String cursor, int limit) {
+        Limit pageLimit = KeysetPages.limit(limit, MAX_PAGE_SIZE);
+        List<SalesRecordSummary> rows;
+        if (cursor == null) {
+            rows = salesRecordRepository.findFirstSummaryPage(pageLimit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = salesRecordRepository.findSummaryPageAfter(parseCursorDate(after), after.id(), pageLimit);
+        }
+        return KeysetPages.toPage(rows, limit, SalesRecordSummary::settlementDate, SalesRecordSummary::id, Function.identity());
+    }
+
     public List<SalesRecordDTO> getSalesRecordsByDateRange(LocalDate startDate, LocalDate endDate) {
         return salesRecordRepository.findBySettlementDateBetweenOrderBySettlementDateDesc(startDate, endDate).stream()
                 .map(this::convertToDTO)
@@ -59,82 +147,185 @@ public class SalesRecordService {
         return convertToDTO(record);
     }
 
-    @Transactional
-    public List<SalesRecordDTO> importFromCSV(MultipartFile file) throws IOException {
-        String fileName = file.getOriginalFilename();
+    public SalesImportSummaryDTO importFromCSV(MultipartFile file) throws IOException {
+        return importFromCSV(file, file.getOriginalFilename(), progress -> {});
+    }
+
+    /**
+     * Stream a CSV settlement export into the database in fixed-size chunks, one transaction per chunk.
+     * The layout is detected from the header row (see {@link SettlementFormatRegistry}). Rows are
+     * upserted on (settlement date, format, POS serial), whether the file is CSV or Excel, and linked
+     * to the machine with that serial; a file imported before is skipped entirely.
+     * {@code progressListener} receives the running summary after every chunk.
+     *
+     * The import is not atomic: if it fails, the chunks saved so far stay imported and a
+     * {@link SalesImportException} carries their summary and the first line not saved. The file
+     * is only recorded as imported once every chunk is saved, so it can be uploaded again.
+     */
+    public SalesImportSummaryDTO importFromCSV(InputStreamSource file, String fileName,
+                                               Consumer<SalesImportSummaryDTO> progressListener) throws IOException {
         log.info("Starting CSV import from file: {}", fileName);
 
-        List<SalesRecord> records = new ArrayList<>();
+        String contentHash;
+        try (InputStream in = file.getInputStream()) {
+            contentHash = contentHash(in);
+        }
+        Optional<SalesImportSummaryDTO> previousImport = findPreviousImport(contentHash, fileName);
+        if (previousImport.isPresent()) {
+            return previousImport.get();
+        }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            String headerLine = reader.readLine();
-            if (headerLine == null) {
+        SalesImportSummaryDTO summary = SalesImportSummaryDTO.builder()
+                .fileName(fileName)
+                .source("CSV")
+                .build();
+        List<SalesRecord> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        ImportPosition position = new ImportPosition();
+
+        try (Reader reader = new InputStreamReader(file.getInputStream())) {
+            SettlementCsvTokenizer tokenizer = new SettlementCsvTokenizer(reader);
+            position.line = 1; // Header is line 1
+            if (!tokenizer.next()) {
                 throw new IllegalArgumentException("CSV file is empty");
             }
+            SettlementFormat format = settlementFormats.detect(tokenizer);
+            SettlementRowParser parser = format.parser(tokenizer);
+            summary.setFormat(format.getName());
 
-            String line;
-            int lineNumber = 2; // Start at 2 (header is line 1)
-
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) {
-                    lineNumber++;
+            while (tokenizer.next()) {
+                position.line++;
+                if (tokenizer.isBlank()) {
                     continue;
                 }
 
+                summary.setTotalRows(summary.getTotalRows() + 1);
                 try {
-                    SalesRecord record = parseCSVLine(line, fileName);
-                    records.add(record);
+                    chunk.add(parseRow(parser, tokenizer, summary));
+                    position.rowBuffered();
                 } catch (Exception e) {
-                    log.warn("Skipping line {} due to error: {}", lineNumber, e.getMessage());
+                    log.warn("Skipping line {} due to error: {}", position.line, e.getMessage());
+                    reject(summary, position.line);
+                }
+
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    saveChunk(chunk, summary);
+                    position.chunkSaved();
+                    progressListener.accept(summary);
                 }
-                lineNumber++;
             }
+
+            saveChunk(chunk, summary);
+        } catch (RuntimeException | IOException e) {
+            throw importFailed(summary, position, e);
         }
 
-        List<SalesRecord> savedRecords = salesRecordRepository.saveAll(records);
-        log.info("Successfully imported {} records from CSV file: {}", savedRecords.size(), fileName);
+        recordImport(contentHash, summary);
+        progressListener.accept(summary);
+        log.info("Imported CSV file {}: {} rows, {} new, {} updated, {} unchanged, {} rejected",
+                fileName, summary.getTotalRows(), summary.getImportedCount(), summary.getUpdatedCount(),
+                summary.getUnchangedCount(), summary.getRejectedCount());
 
-        return savedRecords.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return summary;
     }
 
-    @Transactional
-    public List<SalesRecordDTO> importFromExcel(MultipartFile file) throws IOException {
-        String fileName = file.getOriginalFilename();
+    public SalesImportSummaryDTO importFromExcel(MultipartFile file) throws IOException {
+        // Opening from a file lets POI read the zip lazily instead of inflating it into memory
+        Path tempFile = Files.createTempFile("sales-import-", ".xlsx");
+        try {
+            file.transferTo(tempFile);
+            return importFromExcel(tempFile, file.getOriginalFilename(), progress -> {});
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Stream the first sheet of an XLSX settlement export through POI's event model into the
+     * same chunked upsert path as CSV imports, so only the current row is held in memory.
+     * {@code progressListener} receives the running summary after every chunk. Like CSV imports,
+     * a failure keeps the chunks saved so far and throws a {@link SalesImportException}.
+     */
+    public SalesImportSummaryDTO importFromExcel(Path file, String fileName,
+                                                 Consumer<SalesImportSummaryDTO> progressListener) throws IOException {
         log.info("Starting Excel import from file: {}", fileName);
 
-        List<SalesRecord> records = new ArrayList<>();
+        String contentHash;
+        try (InputStream in = Files.newInputStream(file)) {
+            contentHash = contentHash(in);
+        }
+        Optional<SalesImportSummaryDTO> previousImport = findPreviousImport(contentHash, fileName);
+        if (previousImport.isPresent()) {
+            return previousImport.get();
+        }
 
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            int lastRowNum = sheet.getLastRowNum();
+        SalesImportSummaryDTO summary = SalesImportSummaryDTO.builder()
+                .fileName(fileName)
+                .source("EXCEL")
+                .build();
+        List<SalesRecord> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        ImportPosition position = new ImportPosition();
+
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IllegalArgumentException("Excel file has no sheets");
+            }
 
-            // Skip header row (row 0)
-            for (int rowIndex = 1; rowIndex <= lastRowNum; rowIndex++) {
-                Row row = sheet.getRow(rowIndex);
-                if (row == null) {
-                    continue;
+            SettlementRowParser[] rowParser = new SettlementRowParser[1];
+            ExcelRowHandler rowHandler = new ExcelRowHandler(row -> {
+                position.line = row.rowNumber();
+                // The first non-empty row is the header
+                if (rowParser[0] == null) {
+                    SettlementFormat format = settlementFormats.detect(row.cells());
+                    rowParser[0] = format.parser(row.cells());
+                    summary.setFormat(format.getName());
+                    return;
                 }
 
+                summary.setTotalRows(summary.getTotalRows() + 1);
                 try {
-                    SalesRecord record = parseExcelRow(row, fileName);
-                    if (record != null) {
-                        records.add(record);
-                    }
+                    chunk.add(parseRow(rowParser[0], row.cells(), summary));
+                    position.rowBuffered();
                 } catch (Exception e) {
-                    log.warn("Skipping row {} due to error: {}", rowIndex + 1, e.getMessage());
+                    log.warn("Skipping row {} due to error: {}", row.rowNumber(), e.getMessage());
+                    reject(summary, row.rowNumber());
                 }
+
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    saveChunk(chunk, summary);
+                    position.chunkSaved();
+                    progressListener.accept(summary);
+                }
+            });
+
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new XSSFSheetXMLHandler(
+                    reader.getStylesTable(),
+                    new ReadOnlySharedStringsTable(pkg),
+                    rowHandler,
+                    new RawValueDataFormatter(),
+                    false));
+
+            try (InputStream sheet = sheets.next()) {
+                parser.parse(new InputSource(sheet));
             }
+
+            saveChunk(chunk, summary);
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw importFailed(summary, position,
+                    new IllegalArgumentException("Invalid Excel file: " + e.getMessage(), e));
+        } catch (RuntimeException | IOException e) {
+            throw importFailed(summary, position, e);
         }
 
-        List<SalesRecord> savedRecords = salesRecordRepository.saveAll(records);
-        log.info("Successfully imported {} records from Excel file: {}", savedRecords.size(), fileName);
+        recordImport(contentHash, summary);
+        progressListener.accept(summary);
+        log.info("Imported Excel file {}: {} rows, {} new, {} updated, {} unchanged, {} rejected",
+                fileName, summary.getTotalRows(), summary.getImportedCount(), summary.getUpdatedCount(),
+                summary.getUnchangedCount(), summary.getRejectedCount());
 
-        return savedRecords.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return summary;
     }
 
     @Transactional
@@ -145,165 +336,259 @@ public class SalesRecordService {
         log.info("Deleted sales record with id: {}", id);
     }
 
-    private SalesRecord parseCSVLine(String line, String fileName) {
-        // Remove BOM if present
-        if (line.startsWith("\uFEFF")) {
-            line = line.substring(1);
+    /**
+     * Upsert a chunk in its own transaction: rows for a (settlement date, format, POS serial)
+     * not yet stored are inserted through JDBC batching, changed rows are updated and identical rows
+     * are left alone. Rows linked to a machine refresh that day's rollup before the chunk commits.
+     * The session is cleared afterwards so memory stays flat. The summary counts the chunk only
+     * once it has committed.
+     */
+    private void saveChunk(List<SalesRecord> chunk, SalesImportSummaryDTO summary) {
+        if (chunk.isEmpty()) {
+            return;
         }
 
-        // Parse CSV line (handle quoted values)
-        List<String> values = parseCSVValues(line);
+        Set<LocalDate> dates = chunk.stream()
+                .map(SalesRecord::getSettlementDate)
+                .collect(Collectors.toSet());
+
+        ChunkCounts counts = transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(IMPORT_BATCH_SIZE);
+            int imported = 0;
+            int updated = 0;
+            int unchanged = 0;
+
+            Map<SettlementKey, SalesRecord> stored = salesRecordRepository
+                    .findByFormatAndSettlementDateIn(summary.getFormat(), dates)
+                    .stream()
+                    .collect(Collectors.toMap(SettlementKey::of, Function.identity()));
+
+            for (SalesRecord record : chunk) {
+                SalesRecord existing = stored.get(SettlementKey.of(record));
+                if (existing == null) {
+                    entityManager.persist(record);
+                    stored.put(SettlementKey.of(record), record);
+                    imported++;
+                } else if (hasSameValues(existing, record)) {
+                    unchanged++;
+                } else {
+                    copyValues(record, existing);
+                    updated++;
+                }
+            }
 
-        if (values.size() < 7) {
-            throw new IllegalArgumentException("Invalid CSV line format");
-        }
+            entityManager.flush();
+            entityManager.clear();
+            return new ChunkCounts(imported, updated, unchanged);
+        });
 
-        SalesRecord record = new SalesRecord();
-        record.setSource("CSV");
-        record.setFileName(fileName);
+        summary.setImportedCount(summary.getImportedCount() + counts.imported());
+        summary.setUpdatedCount(summary.getUpdatedCount() + counts.updated());
+        summary.setUnchangedCount(summary.getUnchangedCount() + counts.unchanged());
+        chunk.clear();
+    }
 
-        // Parse date (e.g., "10/1/2025")
-        try {
-            LocalDate date = LocalDate.parse(values.get(0).replace("\"", ""), CSV_DATE_FORMATTER);
-            record.setSettlementDate(date);
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException("Invalid date format: " + values.get(0));
-        }
+    private record ChunkCounts(int imported, int updated, int unchanged) {}
 
-        // Parse numbers
-        record.setNumberOfBatches(parseInteger(values.get(1)));
-        record.setNumberCompleted(parseInteger(values.get(2)));
-        record.setNumberSur(parseInteger(values.get(3)));
-        record.setNumberIncomplete(parseInteger(values.get(4)));
+    private SalesImportException importFailed(SalesImportSummaryDTO summary, ImportPosition position, Exception cause) {
+        summary.setFailedAtLine(position.firstUnsavedLine());
+        summary.setError(cause.getMessage());
+        log.error("Import of {} stopped at line {} after {} new, {} updated, {} unchanged rows were saved",
+                summary.getFileName(), summary.getFailedAtLine(), summary.getImportedCount(),
+                summary.getUpdatedCount(), summary.getUnchangedCount(), cause);
+        return new SalesImportException(summary, cause);
+    }
 
-        // Parse amounts (e.g., "$6.75")
-        record.setApprovedAmount(parseAmount(values.get(5)));
-        record.setFeeAmount(parseAmount(values.get(6)));
+    private boolean hasSameValues(SalesRecord existing, SalesRecord imported) {
+        return Objects.equals(existing.getNumberOfBatches(), imported.getNumberOfBatches())
+                && Objects.equals(existing.getNumberCompleted(), imported.getNumberCompleted())
+                && Objects.equals(existing.getNumberSur(), imported.getNumberSur())
+                && Objects.equals(existing.getNumberIncomplete(), imported.getNumberIncomplete())
+                && isSameAmount(existing.getApprovedAmount(), imported.getApprovedAmount())
+                && isSameAmount(existing.getFeeAmount(), imported.getFeeAmount())
+                && Objects.equals(existing.getMachineId(), imported.getMachineId());
+    }
 
-        record.setCreatedAt(LocalDateTime.now());
-        record.setUpdatedAt(LocalDateTime.now());
+    private boolean isSameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
 
-        return record;
+    private void copyValues(SalesRecord from, SalesRecord to) {
+        to.setNumberOfBatches(from.getNumberOfBatches());
+        to.setNumberCompleted(from.getNumberCompleted());
+        to.setNumberSur(from.getNumberSur());
+        to.setNumberIncomplete(from.getNumberIncomplete());
+        to.setApprovedAmount(from.getApprovedAmount());
+        to.setFeeAmount(from.getFeeAmount());
+        to.setMachineId(from.getMachineId());
+        to.setSource(from.getSource());
+        to.setFileName(from.getFileName());
     }
 
-    private SalesRecord parseExcelRow(Row row, String fileName) {
-        // Check if row is empty
-        if (isRowEmpty(row)) {
-            return null;
-        }
+    private Optional<SalesImportSummaryDTO> findPreviousImport(String contentHash, String fileName) {
+        return salesImportFileRepository.findByContentHash(contentHash)
+                .map(previous -> {
+                    log.info("Skipping import of {}: same content as {} imported at {}",
+                            fileName, previous.getFileName(), previous.getImportedAt());
+                    return SalesImportSummaryDTO.builder()
+                            .fileName(fileName)
+                            .source(previous.getSource())
+                            .totalRows(previous.getTotalRows())
+                            .alreadyImported(true)
+                            .build();
+                });
+    }
 
-        SalesRecord record = new SalesRecord();
-        record.setSource("EXCEL");
-        record.setFileName(fileName);
+    private void recordImport(String contentHash, SalesImportSummaryDTO summary) {
+        try {
+            salesImportFileRepository.save(SalesImportFile.builder()
+                    .contentHash(contentHash)
+                    .source(summary.getSource())
+                    .fileName(summary.getFileName())
+                    .totalRows(summary.getTotalRows())
+                    .importedCount(summary.getImportedCount())
+                    .updatedCount(summary.getUpdatedCount())
+                    .unchangedCount(summary.getUnchangedCount())
+                    .rejectedCount(summary.getRejectedCount())
+                    .importedAt(LocalDateTime.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // The same file was imported concurrently; its rows were upserted either way
+            log.warn("Import of {} was already recorded", summary.getFileName());
+        }
+    }
 
-        // Parse date from first cell
-        Cell dateCell = row.getCell(0);
-        if (dateCell != null) {
-            if (dateCell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(dateCell)) {
-                record.setSettlementDate(dateCell.getLocalDateTimeCellValue().toLocalDate());
-            } else if (dateCell.getCellType() == CellType.STRING) {
-                try {
-                    LocalDate date = LocalDate.parse(dateCell.getStringCellValue(), CSV_DATE_FORMATTER);
-                    record.setSettlementDate(date);
-                } catch (DateTimeParseException e) {
-                    throw new IllegalArgumentException("Invalid date format in Excel");
-                }
+    private String contentHash(InputStream in) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
             }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
+    }
 
-        // Parse numeric columns
-        record.setNumberOfBatches(getIntegerCellValue(row.getCell(1)));
-        record.setNumberCompleted(getIntegerCellValue(row.getCell(2)));
-        record.setNumberSur(getIntegerCellValue(row.getCell(3)));
-        record.setNumberIncomplete(getIntegerCellValue(row.getCell(4)));
+    private void reject(SalesImportSummaryDTO summary, int lineNumber) {
+        summary.setRejectedCount(summary.getRejectedCount() + 1);
+        if (summary.getRejectedLines().size() < MAX_REPORTED_REJECTIONS) {
+            summary.getRejectedLines().add(lineNumber);
+        }
+    }
 
-        // Parse amount columns
-        record.setApprovedAmount(getAmountCellValue(row.getCell(5)));
-        record.setFeeAmount(getAmountCellValue(row.getCell(6)));
+    private LocalDate parseCursorDate(KeysetCursor cursor) {
+        try {
+            return LocalDate.parse(cursor.sortValue());
+        } catch (DateTimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
 
+    private SalesRecord parseRow(SettlementRowParser parser, SettlementRow row, SalesImportSummaryDTO summary) {
+        SalesRecord record = parser.parse(row);
+        String posSerialNumber = PosSerialIndex.normalize(record.getPosSerialNumber());
+        record.setPosSerialNumber(posSerialNumber);
+        record.setMachineId(posSerialIndex.findMachineId(posSerialNumber));
+        record.setSource(summary.getSource());
+        record.setFormat(summary.getFormat());
+        record.setFileName(summary.getFileName());
         record.setCreatedAt(LocalDateTime.now());
         record.setUpdatedAt(LocalDateTime.now());
-
         return record;
     }
 
-    private List<String> parseCSVValues(String line) {
-        List<String> values = new ArrayList<>();
-        StringBuilder currentValue = new StringBuilder();
-        boolean insideQuotes = false;
-
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-
-            if (c == '"') {
-                insideQuotes = !insideQuotes;
-                currentValue.append(c);
-            } else if (c == ',' && !insideQuotes) {
-                values.add(currentValue.toString().trim());
-                currentValue = new StringBuilder();
-            } else {
-                currentValue.append(c);
-            }
-        }
-        values.add(currentValue.toString().trim());
+    /**
+     * Collects the cells of each row from POI's sheet events and hands completed rows on,
+     * skipping blank rows
+     */
+    private static class ExcelRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
 
-        return values;
-    }
+        private static final int MAX_COLUMNS = 64;
 
-    private Integer parseInteger(String value) {
-        try {
-            value = value.replace("\"", "").trim();
-            return value.isEmpty() ? 0 : Integer.parseInt(value);
-        } catch (NumberFormatException e) {
-            return 0;
+        private final Consumer<ExcelRow> rowConsumer;
+        private String[] values = new String[8];
+        private int columnCount;
+
+        ExcelRowHandler(Consumer<ExcelRow> rowConsumer) {
+            this.rowConsumer = rowConsumer;
         }
-    }
 
-    private BigDecimal parseAmount(String value) {
-        try {
-            value = value.replace("\"", "").replace("$", "").replace(",", "").trim();
-            return value.isEmpty() ? BigDecimal.ZERO : new BigDecimal(value);
-        } catch (NumberFormatException e) {
-            return BigDecimal.ZERO;
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(values, 0, columnCount, null);
+            columnCount = 0;
         }
-    }
 
-    private Integer getIntegerCellValue(Cell cell) {
-        if (cell == null) {
-            return 0;
+        @Override
+        public void endRow(int rowNum) {
+            if (columnCount > 0) {
+                rowConsumer.accept(new ExcelRow(rowNum + 1, new SettlementCells(Arrays.copyOf(values, columnCount))));
+            }
         }
 
-        return switch (cell.getCellType()) {
-            case NUMERIC -> (int) cell.getNumericCellValue();
-            case STRING -> parseInteger(cell.getStringCellValue());
-            default -> 0;
-        };
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            if (column < MAX_COLUMNS && formattedValue != null && !formattedValue.isBlank()) {
+                if (column >= values.length) {
+                    values = Arrays.copyOf(values, Math.max(column + 1, values.length * 2));
+                }
+                values[column] = formattedValue;
+                columnCount = Math.max(columnCount, column + 1);
+            }
+        }
     }
 
-    private BigDecimal getAmountCellValue(Cell cell) {
-        if (cell == null) {
-            return BigDecimal.ZERO;
+    private record ExcelRow(int rowNumber, SettlementCells cells) {}
+
+    /**
+     * Where an import has got to, so a failure can name the first line that was not saved
+     */
+    private static final class ImportPosition {
+        private int line;  // Line (or row) being read
+        private int firstBufferedLine;  // First line of the unsaved chunk, 0 while it is empty
+
+        void rowBuffered() {
+            if (firstBufferedLine == 0) {
+                firstBufferedLine = line;
+            }
+        }
+
+        void chunkSaved() {
+            firstBufferedLine = 0;
         }
 
-        return switch (cell.getCellType()) {
-            case NUMERIC -> BigDecimal.valueOf(cell.getNumericCellValue());
-            case STRING -> parseAmount(cell.getStringCellValue());
-            default -> BigDecimal.ZERO;
-        };
+        int firstUnsavedLine() {
+            return firstBufferedLine > 0 ? firstBufferedLine : line;
+        }
     }
 
-    private boolean isRowEmpty(Row row) {
-        if (row == null) {
-            return true;
+    /**
+     * Natural key of a settlement line within one format
+     */
+    private record SettlementKey(LocalDate settlementDate, String posSerialNumber) {
+
+        static SettlementKey of(SalesRecord record) {
+            return new SettlementKey(record.getSettlementDate(), record.getPosSerialNumber());
         }
+    }
+
+    /**
+     * Formats date cells as ISO dates and other numbers as plain decimals, so parsing does not
+     * depend on the number formats used in the workbook
+     */
+    private static class RawValueDataFormatter extends DataFormatter {
 
-        for (int i = 0; i < row.getLastCellNum(); i++) {
-            Cell cell = row.getCell(i);
-            if (cell != null && cell.getCellType() != CellType.BLANK) {
-                return false;
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value, use1904Windowing).toLocalDate().toString();
             }
+            return NumberToTextConverter.toText(value);
         }
-        return true;
     }
 
     private SalesRecordDTO convertToDTO(SalesRecord record) {
@@ -311,6 +596,9 @@ public class SalesRecordService {
                 .id(record.getId())
                 .settlementDate(record.getSettlementDate())
                 .source(record.getSource())
+                .format(record.getFormat())
+                .posSerialNumber(record.getPosSerialNumber())
+                .machineId(record.getMachineId())
                 .numberOfBatches(record.getNumberOfBatches())
                 .numberCompleted(record.getNumberCompleted())
                 .numberSur(record.getNumberSur())
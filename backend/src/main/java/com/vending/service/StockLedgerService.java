@@ -0,0 +1,375 @@
+package com.vending.service;
+
+import com.vending.dto.StockLevelDTO;
+import com.vending.dto.StockMovementDTO;
+import com.vending.dto.StockMovementRequest;
+import com.vending.entity.StockMovement;
+import com.vending.entity.StockMovement.MovementType;
+import com.vending.entity.StockSnapshot;
+import com.vending.exception.BadRequestException;
+import com.vending.exception.ResourceNotFoundException;
+import com.vending.repository.ProductRepository;
+import com.vending.repository.ProductStockRepository.StockChange;
+import com.vending.repository.StockMovementRepository;
+import com.vending.repository.StockSnapshotRepository;
+import com.vending.repository.projection.ProductStockVersion;
+import com.vending.repository.projection.StockMovementTotal;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Records every change to warehouse stock as an append-only {@link StockMovement} and keeps
+ * {@code products.current_stock} as their running sum.
+ *
+ * Stock is valued at moving-average cost: receipts carry their purchase cost and move the
+ * product's {@code average_cost}, and every other movement is costed at that average, so
+ * cost of goods for any period is a sum over the ledger.
+ *
+ * Changes run through {@link StockMutationRetry}: removals are checked against the stock read
+ * and applied only if the product's version hasn't moved, and are retried when it has.
+ *
+ * A nightly job snapshots each product's stock at the end of the previous day, so stock at any
+ * point in time is the nearest earlier snapshot plus the movements after it. Stock before the
+ * ledger began recording can't be reconstructed (only receipts were backfilled), so it isn't served.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class StockLedgerService {
+
+    public static final int MAX_MOVEMENTS = 500;
+
+    // Matches the unit_cost and average_cost columns
+    public static final int COST_SCALE = 4;
+
+    private final StockMovementRepository stockMovementRepository;
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final ProductRepository productRepository;
+    private final StockMutationRetry stockMutationRetry;
+    private final TransactionTemplate transactionTemplate;
+    private final DailyAnalyticsCache dailyAnalyticsCache;
+
+    // When the first movement was recorded; only moves later if products are deleted, so kept once found
+    private volatile LocalDateTime ledgerStart;
+
+    /**
+     * Record a manual movement: a restock to a machine, an expiry write-off or an adjustment
+     */
+    public StockMovementDTO recordMovement(StockMovementRequest request) {
+        int quantity = switch (request.movementType()) {
+            case RECEIPT -> throw new BadRequestException("Receipts are recorded from procurement batches");
+            case RESTOCK, EXPIRY_WRITE_OFF -> {
+                if (request.quantity() < 1) {
+                    throw new BadRequestException("Quantity must be at least 1");
+                }
+                yield -request.quantity();
+            }
+            case ADJUSTMENT -> {
+                if (request.quantity() == 0) {
+                    throw new BadRequestException("Adjustment quantity must not be zero");
+                }
+                yield request.quantity();
+            }
+        };
+
+        return stockMutationRetry.execute("movement", () -> {
+            StockMovement movement = StockMovement.builder()
+                    .productId(request.productId())
+                    .movementType(request.movementType())
+                    .quantity(quantity)
+                    .occurredAt(request.occurredAt())
+                    .referenceId(request.referenceId())
+                    .notes(request.notes())
+                    .build();
+            return convertToDTO(record(List.of(movement), null).get(0));
+        });
+    }
+
+    /**
+     * Set a product's stock to a counted value by recording the difference as an adjustment
+     *
+     * @return the product's stock after the adjustment
+     */
+    public int adjustTo(UUID productId, int countedStock, String notes) {
+        if (countedStock < 0) {
+            throw new BadRequestException("Current stock cannot be negative");
+        }
+        return stockMutationRetry.execute("adjustment", () -> {
+            // The difference only holds for the version read, so apply it conditionally
+            Map<UUID, ProductStockVersion> read = productRepository.findStockVersions(List.of(productId));
+            if (!read.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+            int currentStock = read.get(productId).currentStock();
+            if (countedStock != currentStock) {
+                record(List.of(StockMovement.builder()
+                        .productId(productId)
+                        .movementType(MovementType.ADJUSTMENT)
+                        .quantity(countedStock - currentStock)
+                        .notes(notes)
+                        .build()), read);
+            }
+            return countedStock;
+        });
+    }
+
+    /**
+     * Bring the receipts recorded for a procurement batch in line with its current items.
+     * Only the difference from what was recorded before is appended, so editing a batch
+     * reverses stock it no longer supplies, at the cost it came in at, and deleting it
+     * (no {@code lines}) reverses all of it.
+     */
+    public void syncReceipts(UUID batchId, LocalDateTime purchaseDate, Collection<ReceiptLine> lines, String notes) {
+        stockMutationRetry.execute("receipt", () -> {
+            appendReceiptChanges(batchId, purchaseDate, lines, notes);
+            return null;
+        });
+    }
+
+    private void appendReceiptChanges(UUID batchId, LocalDateTime purchaseDate, Collection<ReceiptLine> lines,
+                                      String notes) {
+        Map<ReceiptKey, Integer> changes = new HashMap<>();
+        for (ReceiptLine line : lines) {
+            BigDecimal unitCost = line.unitCost().setScale(COST_SCALE, RoundingMode.HALF_UP);
+            changes.merge(new ReceiptKey(line.productId(), purchaseDate, unitCost), line.units(), Integer::sum);
+        }
+        for (StockMovementTotal recorded : stockMovementRepository.sumByReference(batchId, MovementType.RECEIPT)) {
+            changes.merge(new ReceiptKey(recorded.productId(), recorded.occurredAt(), recorded.unitCost()),
+                    -recorded.quantity().intValue(), Integer::sum);
+        }
+
+        List<StockMovement> movements = new ArrayList<>();
+        changes.forEach((key, quantity) -> {
+            if (quantity != 0) {
+                movements.add(StockMovement.builder()
+                        .productId(key.productId())
+                        .movementType(MovementType.RECEIPT)
+                        .quantity(quantity)
+                        .unitCost(key.unitCost())
+                        .occurredAt(key.occurredAt())
+                        .referenceId(batchId)
+                        .notes(notes)
+                        .build());
+            }
+        });
+        record(movements, null);
+    }
+
+    /**
+     * Append movements and apply them to current stock and to any snapshots taken after they
+     * occurred. Fails without changing anything if a product doesn't exist or would go below zero.
+     *
+     * Receipts that only add stock are applied as atomic increments. Anything else is costed at
+     * the product's average cost as read, so it is applied only if no other writer changed the
+     * product since; otherwise this throws to let the caller retry.
+     */
+    private List<StockMovement> record(List<StockMovement> movements, Map<UUID, ProductStockVersion> readVersions) {
+        if (movements.isEmpty()) {
+            return movements;
+        }
+
+        String performedBy = currentUsername();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Map<UUID, Integer> unitsByProduct = new HashMap<>();
+        boolean conditional = readVersions != null;
+        for (StockMovement movement : movements) {
+            if (movement.getOccurredAt() == null) {
+                movement.setOccurredAt(now);
+            }
+            if (movement.getPerformedBy() == null) {
+                movement.setPerformedBy(performedBy);
+            }
+            unitsByProduct.merge(movement.getProductId(), movement.getQuantity(), Integer::sum);
+            conditional |= movement.getUnitCost() == null || movement.getQuantity() < 0;
+        }
+
+        if (conditional && readVersions == null) {
+            readVersions = productRepository.findStockVersions(unitsByProduct.keySet());
+        }
+        if (conditional) {
+            for (Map.Entry<UUID, Integer> entry : unitsByProduct.entrySet()) {
+                ProductStockVersion read = readVersions.get(entry.getKey());
+                if (read == null) {
+                    throw new ResourceNotFoundException("Product", "id", entry.getKey());
+                }
+                if (read.currentStock() + entry.getValue() < 0) {
+                    throw new BadRequestException("Insufficient stock for product " + entry.getKey()
+                            + ": " + read.currentStock() + " available, " + -entry.getValue() + " required");
+                }
+            }
+            for (StockMovement movement : movements) {
+                if (movement.getUnitCost() == null) {
+                    movement.setUnitCost(readVersions.get(movement.getProductId()).averageCost());
+                }
+            }
+        }
+
+        Map<UUID, StockChange> changes = new HashMap<>();
+        for (StockMovement movement : movements) {
+            BigDecimal receivedCost = movement.getMovementType() == MovementType.RECEIPT
+                    ? movement.getUnitCost().multiply(BigDecimal.valueOf(movement.getQuantity()))
+                    : BigDecimal.ZERO;
+            changes.merge(movement.getProductId(), new StockChange(movement.getQuantity(), receivedCost),
+                    (a, b) -> new StockChange(a.units() + b.units(), a.receivedCost().add(b.receivedCost())));
+        }
+
+        List<StockMovement> saved = stockMovementRepository.saveAll(movements);
+        if (conditional) {
+            productRepository.incrementStockIfUnchanged(changes, readVersions);
+        } else if (productRepository.incrementStock(changes) < changes.size()) {
+            throw new ResourceNotFoundException("Product not found for stock movement");
+        }
+
+        // Snapshots only exist for days before today; fold backdated movements into them
+        LocalDate today = LocalDate.now();
+        Set<LocalDate> restockDays = new HashSet<>();
+        for (StockMovement movement : saved) {
+            LocalDate day = movement.getOccurredAt().toLocalDate();
+            if (day.isBefore(today)) {
+                stockSnapshotRepository.addFrom(movement.getProductId(), day, movement.getQuantity());
+                if (movement.getMovementType() == MovementType.RESTOCK) {
+                    restockDays.add(day);
+                }
+            }
+        }
+        // Cached product analytics of closed days include the cost of their restocks
+        if (!restockDays.isEmpty() && !TransactionSynchronizationManager.isSynchronizationActive()) {
+            dailyAnalyticsCache.evict(restockDays);
+        } else if (!restockDays.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dailyAnalyticsCache.evict(restockDays);
+                }
+            });
+        }
+
+        log.debug("Recorded {} stock movements for {} products", saved.size(), unitsByProduct.size());
+        return saved;
+    }
+
+    /** Get a product's most recent movements, newest first */
+    @Transactional(readOnly = true)
+    public List<StockMovementDTO> getMovements(UUID productId, int limit) {
+        if (limit < 1 || limit > MAX_MOVEMENTS) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_MOVEMENTS);
+        }
+        return stockMovementRepository.findByProductIdOrderByOccurredAtDescIdDesc(productId, Limit.of(limit))
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get a product's stock at a point in time: the last snapshot taken before that day
+     * plus the movements since, without replaying the full history. Times before the ledger
+     * began are rejected.
+     */
+    @Transactional(readOnly = true)
+    public StockLevelDTO getStockAt(UUID productId, LocalDateTime at) {
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        LocalDateTime start = getLedgerStart();
+        if (start != null && at.isBefore(start)) {
+            throw new BadRequestException("Stock history is only available from " + start);
+        }
+
+        Optional<StockSnapshot> snapshot = stockSnapshotRepository
+                .findFirstByProductIdAndSnapshotDateLessThanOrderBySnapshotDateDesc(productId, at.toLocalDate());
+        long stock = snapshot
+                .map(s -> s.getStock() + stockMovementRepository.sumBetween(
+                        productId, s.getSnapshotDate().plusDays(1).atStartOfDay(), at))
+                .orElseGet(() -> stockMovementRepository.sumBefore(productId, at));
+
+        return StockLevelDTO.builder()
+                .productId(productId)
+                .at(at)
+                .stock((int) stock)
+                .snapshotDate(snapshot.map(StockSnapshot::getSnapshotDate).orElse(null))
+                .build();
+    }
+
+    private LocalDateTime getLedgerStart() {
+        LocalDateTime start = ledgerStart;
+        if (start == null) {
+            start = stockMovementRepository.findLedgerStart();
+            ledgerStart = start;
+        }
+        return start;
+    }
+
+    /**
+     * Snapshot every product's stock at the end of each day since the last snapshot, up to
+     * yesterday. Each day is computed from current stock less the movements after it.
+     */
+    @Scheduled(cron = "${app.inventory.snapshot-cron}")
+    public void takeSnapshots() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate latest = stockSnapshotRepository.findLatestSnapshotDate();
+        LocalDate day = latest != null ? latest.plusDays(1) : yesterday;
+
+        for (; !day.isAfter(yesterday); day = day.plusDays(1)) {
+            LocalDate snapshotDate = day;
+            Integer written = transactionTemplate.execute(status ->
+                    stockSnapshotRepository.insertForDate(snapshotDate, snapshotDate.plusDays(1).atStartOfDay()));
+            log.info("Stock snapshot for {}: {} products", snapshotDate, written);
+        }
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || "anonymousUser".equals(authentication.getPrincipal())) {
+            return "system";
+        }
+        return authentication.getName();
+    }
+
+    private StockMovementDTO convertToDTO(StockMovement movement) {
+        return StockMovementDTO.builder()
+                .id(movement.getId())
+                .productId(movement.getProductId())
+                .movementType(movement.getMovementType())
+                .quantity(movement.getQuantity())
+                .unitCost(movement.getUnitCost())
+                .occurredAt(movement.getOccurredAt())
+                .referenceId(movement.getReferenceId())
+                .notes(movement.getNotes())
+                .performedBy(movement.getPerformedBy())
+                .createdAt(movement.getCreatedAt())
+                .build();
+    }
+
+    /**
+     * Units of a product received by a procurement batch and the purchase cost of one unit
+     */
+    public record ReceiptLine(UUID productId, int units, BigDecimal unitCost) {}
+
+    private record ReceiptKey(UUID productId, LocalDateTime occurredAt, BigDecimal unitCost) {}
+}
@@ -0,0 +1,86 @@
+package com.vending.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a stock-changing operation in its own transaction and retries it with exponential
+ * backoff when it loses an optimistic-locking race, so concurrent writers re-read the product
+ * and reapply their change instead of failing or overwriting each other.
+ *
+ * Conflicts are counted in {@code stock.mutation.conflicts} and operations that still conflict
+ * after the last attempt in {@code stock.mutation.exhausted}, both tagged with the operation name.
+ */
+@Service
+@Slf4j
+public class StockMutationRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    public StockMutationRetry(TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.inventory.retry.max-attempts}") int maxAttempts,
+                              @Value("${app.inventory.retry.initial-backoff-ms}") long initialBackoffMs,
+                              @Value("${app.inventory.retry.max-backoff-ms}") long maxBackoffMs) {
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        // Nested in a caller's transaction: a conflict dooms that transaction, so the caller retries
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                counter("stock.mutation.conflicts", "Stock changes that lost an optimistic-locking race", operation)
+                        .increment();
+                if (attempt >= maxAttempts) {
+                    counter("stock.mutation.exhausted", "Stock changes that still conflicted after the last retry", operation)
+                            .increment();
+                    log.warn("Stock mutation '{}' still conflicting after {} attempts", operation, attempt);
+                    throw e;
+                }
+                log.debug("Stock mutation '{}' conflicted on attempt {}, retrying", operation, attempt);
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    private void backoff(int attempt, OptimisticLockingFailureException conflict) {
+        // Exponential with jitter, so writers that collided don't collide again in lockstep
+        long delay = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(delay / 2, delay + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    private Counter counter(String name, String description, String operation) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
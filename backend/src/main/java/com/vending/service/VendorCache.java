@@ -0,0 +1,141 @@
+package com.vending.service;
+
+import com.vending.dto.VendorDTO;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Write-through upkeep of the {@code vendors} cache. A written vendor replaces its own entry
+ * and is patched into whichever of the cached all/active/preferred lists it belongs to, so a
+ * write never forces the other vendors to be reloaded.
+ *
+ * Inside a transaction, changes reach the cache only after it commits. Reads load through
+ * {@link #get}, which drops a load that overlapped a write, so a list read before the write
+ * can't be cached over the patched one.
+ */
+@Component
+public class VendorCache {
+
+    public static final String CACHE_NAME = "vendors";
+
+    // List entries cached by VendorService, with the vendors each one holds
+    private static final List<ListEntry> LISTS = List.of(
+            new ListEntry("all", vendor -> true),
+            new ListEntry("active", vendor -> Boolean.TRUE.equals(vendor.getActive())),
+            new ListEntry("preferred", vendor -> Boolean.TRUE.equals(vendor.getPreferred()))
+    );
+
+    private final Cache cache;
+
+    // Bumped by every applied write; guarded by this
+    private long generation;
+
+    public VendorCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    /**
+     * Get the entry cached under {@code key}, loading it on a miss. The loaded value is cached
+     * only if no write was applied while it loaded; otherwise it may predate that write, so it
+     * is returned without being cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Supplier<T> loader) {
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+        T value = loader.get();
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                cache.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Store a vendor's current state under its id and in the cached lists it belongs to,
+     * dropping it from those it no longer does
+     */
+    public void put(VendorDTO vendor) {
+        afterCommit(() -> apply(vendor.getId(), vendor));
+    }
+
+    /**
+     * Remove a deleted vendor from its id entry and the cached lists
+     */
+    public void remove(UUID vendorId) {
+        afterCommit(() -> apply(vendorId, null));
+    }
+
+    // Serialized so concurrent writers don't patch the same cached list from the same starting point
+    private synchronized void apply(UUID vendorId, VendorDTO vendor) {
+        generation++;
+        if (vendor != null) {
+            cache.put(vendorId, vendor);
+        } else {
+            cache.evict(vendorId);
+        }
+        for (ListEntry list : LISTS) {
+            patch(list.key(), vendorId, vendor != null && list.includes().test(vendor) ? vendor : null);
+        }
+    }
+
+    /**
+     * Replace the vendor in a cached list, or remove it when {@code vendor} is null. Lists that
+     * aren't cached are left for the next read to load. A new list is cached rather than changing
+     * the old one, which callers may still be reading.
+     */
+    @SuppressWarnings("unchecked")
+    private void patch(String key, UUID vendorId, VendorDTO vendor) {
+        List<VendorDTO> cached = cache.get(key, List.class);
+        if (cached == null) {
+            return;
+        }
+
+        List<VendorDTO> patched = new ArrayList<>(cached.size() + 1);
+        boolean placed = false;
+        for (VendorDTO entry : cached) {
+            if (!entry.getId().equals(vendorId)) {
+                patched.add(entry);
+            } else if (vendor != null && !placed) {
+                patched.add(vendor);
+                placed = true;
+            }
+        }
+        if (vendor != null && !placed) {
+            patched.add(vendor);
+        }
+        cache.put(key, patched);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record ListEntry(String key, Predicate<VendorDTO> includes) {}
+}
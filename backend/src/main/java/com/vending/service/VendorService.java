@@ -5,17 +5,18 @@ import com.vending.entity.Vendor;
 import com.vending.exception.ResourceNotFoundException;
 import com.vending.repository.ProcurementBatchRepository;
 import com.vending.repository.VendorRepository;
+import com.vending.repository.projection.VendorPurchaseStats;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,43 +26,32 @@ public class VendorService {
 
     private final VendorRepository vendorRepository;
     private final ProcurementBatchRepository procurementBatchRepository;
+    private final VendorCache vendorCache;
 
-    @Cacheable(value = "vendors", key = "'all'")
     public List<VendorDTO> getAllVendors() {
-        return vendorRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return vendorCache.get("all",
+                () -> convertToDTOs(vendorRepository.findAll(), procurementBatchRepository.sumByVendor()));
     }
 
-    @Cacheable(value = "vendors", key = "'active'")
     public List<VendorDTO> getActiveVendors() {
-        return vendorRepository.findByActiveTrue().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return vendorCache.get("active", () -> convertToDTOs(vendorRepository.findByActiveTrue()));
     }
 
-    @Cacheable(value = "vendors", key = "'preferred'")
     public List<VendorDTO> getPreferredVendors() {
-        return vendorRepository.findByPreferredTrue().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return vendorCache.get("preferred", () -> convertToDTOs(vendorRepository.findByPreferredTrue()));
     }
 
-    @Cacheable(value = "vendors", key = "#id")
     public VendorDTO getVendorById(UUID id) {
-        Vendor vendor = vendorRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Vendor not found with id: " + id));
-        return convertToDTO(vendor);
+        return vendorCache.get(id, () -> vendorRepository.findById(id)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Vendor not found with id: " + id)));
     }
 
     public List<VendorDTO> searchVendors(String search) {
-        return vendorRepository.searchVendors(search).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(vendorRepository.searchVendors(search));
     }
 
     @Transactional
-    @CacheEvict(value = "vendors", allEntries = true)
     public VendorDTO createVendor(VendorDTO vendorDTO) {
         Vendor vendor = convertToEntity(vendorDTO);
         vendor.setCreatedAt(LocalDateTime.now());
@@ -70,11 +60,10 @@ public class VendorService {
         Vendor savedVendor = vendorRepository.save(vendor);
         log.info("Created new vendor: {} (ID: {})", savedVendor.getName(), savedVendor.getId());
 
-        return convertToDTO(savedVendor);
+        return cache(convertToDTO(savedVendor));
     }
 
     @Transactional
-    @CacheEvict(value = "vendors", allEntries = true)
     public VendorDTO updateVendor(UUID id, VendorDTO vendorDTO) {
         Vendor existingVendor = vendorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Vendor not found with id: " + id));
@@ -85,21 +74,20 @@ public class VendorService {
         Vendor updatedVendor = vendorRepository.save(existingVendor);
         log.info("Updated vendor: {} (ID: {})", updatedVendor.getName(), updatedVendor.getId());
 
-        return convertToDTO(updatedVendor);
+        return cache(convertToDTO(updatedVendor));
     }
 
     @Transactional
-    @CacheEvict(value = "vendors", allEntries = true)
     public void deleteVendor(UUID id) {
         Vendor vendor = vendorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Vendor not found with id: " + id));
 
         vendorRepository.delete(vendor);
+        vendorCache.remove(id);
         log.info("Deleted vendor: {} (ID: {})", vendor.getName(), vendor.getId());
     }
 
     @Transactional
-    @CacheEvict(value = "vendors", allEntries = true)
     public VendorDTO toggleVendorStatus(UUID id) {
         Vendor vendor = vendorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Vendor not found with id: " + id));
@@ -110,10 +98,50 @@ public class VendorService {
         Vendor updatedVendor = vendorRepository.save(vendor);
         log.info("Toggled vendor status: {} - Active: {}", updatedVendor.getName(), updatedVendor.getActive());
 
-        return convertToDTO(updatedVendor);
+        return cache(convertToDTO(updatedVendor));
+    }
+
+    /**
+     * Recompute a vendor's purchase statistics after its procurement batches changed and
+     * update only that vendor's cached entries
+     */
+    @Transactional
+    public void refreshPurchaseStats(UUID vendorId) {
+        vendorRepository.findById(vendorId)
+                .map(this::convertToDTO)
+                .ifPresent(vendorCache::put);
+    }
+
+    private VendorDTO cache(VendorDTO vendor) {
+        vendorCache.put(vendor);
+        return vendor;
+    }
+
+    /**
+     * Convert vendors with their purchase statistics, aggregated for all of them in one query
+     */
+    private List<VendorDTO> convertToDTOs(List<Vendor> vendors) {
+        if (vendors.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> vendorIds = vendors.stream().map(Vendor::getId).toList();
+        return convertToDTOs(vendors, procurementBatchRepository.sumByVendorIds(vendorIds));
+    }
+
+    private List<VendorDTO> convertToDTOs(List<Vendor> vendors, List<VendorPurchaseStats> stats) {
+        Map<UUID, VendorPurchaseStats> statsByVendor = stats.stream()
+                .collect(Collectors.toMap(VendorPurchaseStats::vendorId, Function.identity()));
+
+        return vendors.stream()
+                .map(vendor -> convertToDTO(vendor, statsByVendor.get(vendor.getId())))
+                .collect(Collectors.toList());
     }
 
     private VendorDTO convertToDTO(Vendor vendor) {
+        return convertToDTOs(List.of(vendor)).get(0);
+    }
+
+    private VendorDTO convertToDTO(Vendor vendor, VendorPurchaseStats stats) {
         VendorDTO dto = VendorDTO.builder()
                 .id(vendor.getId())
                 .name(vendor.getName())
@@ -149,19 +177,10 @@ public class VendorService {
                 .updatedAt(vendor.getUpdatedAt())
                 .build();
 
-        // Calculate purchase statistics
-        var batches = procurementBatchRepository.findByVendorId(vendor.getId());
-        dto.setTotalPurchases(batches.size());
-
-        BigDecimal totalSpent = batches.stream()
-                .map(batch -> batch.getTotalAmount() != null ? batch.getTotalAmount() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        dto.setTotalSpent(totalSpent);
-
-        batches.stream()
-                .map(batch -> batch.getPurchaseDate())
-                .max(LocalDateTime::compareTo)
-                .ifPresent(dto::setLastPurchaseDate);
+        // Purchase statistics
+        dto.setTotalPurchases(stats != null ? stats.purchaseCount().intValue() : 0);
+        dto.setTotalSpent(stats != null && stats.totalSpent() != null ? stats.totalSpent() : BigDecimal.ZERO);
+        dto.setLastPurchaseDate(stats != null ? stats.lastPurchaseDate() : null);
 
         return dto;
     }
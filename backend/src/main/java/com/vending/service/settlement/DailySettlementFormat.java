@@ -0,0 +1,84 @@
+package com.vending.service.settlement;
+
+import com.vending.entity.SalesRecord;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Daily batch settlement summary: one row per settlement date with batch counts and approved/fee totals.
+ * Exports run per terminal may add a serial number column after the totals, which links rows to a machine.
+ */
+@Component
+public class DailySettlementFormat implements SettlementFormat {
+
+    public static final String NAME = "DAILY_SETTLEMENT";
+
+    private static final List<String> HEADERS = List.of(
+            "Settlement Date", "# of Batches", "# Completed", "# Sur", "# Incomplete", "Approved Amount", "Fee Amount");
+
+    private static final Set<String> SERIAL_HEADERS = Set.of("serial number", "device serial", "pos serial", "terminal id");
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean matches(SettlementRow header) {
+        if (header.fieldCount() < HEADERS.size()) {
+            return false;
+        }
+        for (int i = 0; i < HEADERS.size(); i++) {
+            if (!HEADERS.get(i).equalsIgnoreCase(header.field(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public SettlementRowParser parser(SettlementRow header) {
+        int serialColumn = -1;
+        for (int i = HEADERS.size(); i < header.fieldCount(); i++) {
+            if (SERIAL_HEADERS.contains(header.field(i).toLowerCase(Locale.ROOT))) {
+                serialColumn = i;
+                break;
+            }
+        }
+
+        int serialIndex = serialColumn;
+        return row -> {
+            SalesRecord record = parse(row);
+            if (serialIndex >= 0 && serialIndex < row.fieldCount()) {
+                record.setPosSerialNumber(row.field(serialIndex));
+            }
+            return record;
+        };
+    }
+
+    private SalesRecord parse(SettlementRow row) {
+        if (row.fieldCount() < HEADERS.size()) {
+            throw new IllegalArgumentException("Invalid settlement row format");
+        }
+
+        SalesRecord record = new SalesRecord();
+
+        // Parse date (e.g., "10/1/2025")
+        record.setSettlementDate(row.dateField(0));
+
+        // Parse numbers
+        record.setNumberOfBatches(row.intField(1));
+        record.setNumberCompleted(row.intField(2));
+        record.setNumberSur(row.intField(3));
+        record.setNumberIncomplete(row.intField(4));
+
+        // Parse amounts (e.g., "$6.75")
+        record.setApprovedAmount(row.amountField(5));
+        record.setFeeAmount(row.amountField(6));
+
+        return record;
+    }
+}
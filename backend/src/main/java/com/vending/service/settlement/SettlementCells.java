@@ -0,0 +1,62 @@
+package com.vending.service.settlement;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * A spreadsheet row as a {@link SettlementRow}. Cells formatted as dates arrive as ISO dates and are
+ * accepted alongside {@code M/d/yyyy} text.
+ */
+public final class SettlementCells implements SettlementRow {
+
+    private final String[] values;
+
+    public SettlementCells(String[] values) {
+        this.values = values;
+    }
+
+    @Override
+    public int fieldCount() {
+        return values.length;
+    }
+
+    @Override
+    public String field(int index) {
+        String value = index < values.length ? values[index] : null;
+        return value != null ? value.trim() : "";
+    }
+
+    @Override
+    public boolean isBlank() {
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int intField(int index) {
+        return SettlementCsvTokenizer.parseInteger(field(index));
+    }
+
+    @Override
+    public BigDecimal amountField(int index) {
+        return SettlementCsvTokenizer.parseAmount(field(index));
+    }
+
+    @Override
+    public LocalDate dateField(int index) {
+        String value = field(index);
+        if (!value.contains("-")) {
+            return SettlementCsvTokenizer.parseDate(value);
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date format: " + value);
+        }
+    }
+}
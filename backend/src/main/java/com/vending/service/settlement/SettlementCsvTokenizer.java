@@ -0,0 +1,352 @@
+package com.vending.service.settlement;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Reads settlement CSV exports line by line into reusable char buffers.
+ *
+ * Each call to {@link #next()} fills one line buffer, splits it into fields in place (quotes
+ * removed, whitespace trimmed) and leaves the values to be read with {@link #intField(int)},
+ * {@link #amountField(int)} and {@link #dateField(int)} without creating intermediate strings.
+ * Values that fall outside the common shapes ({@code 12}, {@code $1,234.50}, {@code 10/1/2025})
+ * go through the regular JDK parsers. Integer fields with a fraction are truncated, as spreadsheet
+ * cells always were, and integer fields that are not numbers reject the row.
+ * Lines may end in LF, CRLF or a bare CR. Not thread-safe; use one instance per file.
+ */
+public final class SettlementCsvTokenizer implements SettlementRow {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("M/d/yyyy");
+    private static final char BOM = '\uFEFF';
+
+    private final Reader reader;
+    private final char[] input = new char[8192];
+    private int inputPosition;
+    private int inputLimit;
+    private boolean endOfInput;
+    private boolean firstLine = true;
+    // Set after a CR, so the LF of a CRLF pair does not end a second, empty line
+    private boolean skipLineFeed;
+
+    private char[] line = new char[256];
+    private int[] fieldStart = new int[8];
+    private int[] fieldEnd = new int[8];
+    private int fieldCount;
+
+    public SettlementCsvTokenizer(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Advance to the next line, returning false at the end of the input
+     */
+    public boolean next() throws IOException {
+        int length = readLine();
+        if (length < 0) {
+            return false;
+        }
+        tokenize(length);
+        return true;
+    }
+
+    @Override
+    public boolean isBlank() {
+        return fieldCount == 1 && fieldStart[0] == fieldEnd[0];
+    }
+
+    @Override
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    @Override
+    public String field(int index) {
+        return new String(line, fieldStart[index], fieldEnd[index] - fieldStart[index]);
+    }
+
+    @Override
+    public int intField(int index) {
+        return parseInteger(line, fieldStart[index], fieldEnd[index]);
+    }
+
+    @Override
+    public BigDecimal amountField(int index) {
+        return parseAmount(line, fieldStart[index], fieldEnd[index]);
+    }
+
+    @Override
+    public LocalDate dateField(int index) {
+        return parseDate(line, fieldStart[index], fieldEnd[index]);
+    }
+
+    /**
+     * Integer value of a single cell, with the same rules as {@link SettlementRow#intField(int)}
+     *
+     * @throws IllegalArgumentException if the value is not a number or does not fit an int
+     */
+    public static int parseInteger(String value) {
+        return parseInteger(value.toCharArray(), 0, value.length());
+    }
+
+    /**
+     * Amount value of a single cell, with the same rules as {@link SettlementRow#amountField(int)}
+     */
+    public static BigDecimal parseAmount(String value) {
+        return parseAmount(value.toCharArray(), 0, value.length());
+    }
+
+    /**
+     * Date value of a single {@code M/d/yyyy} cell
+     *
+     * @throws IllegalArgumentException if the value is not a valid date
+     */
+    public static LocalDate parseDate(String value) {
+        return parseDate(value.toCharArray(), 0, value.length());
+    }
+
+    private int readLine() throws IOException {
+        int length = 0;
+        boolean read = false;
+        while (true) {
+            if (inputPosition == inputLimit) {
+                if (endOfInput || !fill()) {
+                    return read ? length : -1;
+                }
+            }
+            char c = input[inputPosition++];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+            read = true;
+            if (c == '\n') {
+                break;
+            }
+            if (c == '\r') {
+                skipLineFeed = true;
+                break;
+            }
+            if (length == line.length) {
+                line = Arrays.copyOf(line, line.length * 2);
+            }
+            line[length++] = c;
+        }
+        return length;
+    }
+
+    private boolean fill() throws IOException {
+        int n = reader.read(input, 0, input.length);
+        if (n <= 0) {
+            endOfInput = true;
+            return false;
+        }
+        inputPosition = 0;
+        inputLimit = n;
+        if (firstLine) {
+            firstLine = false;
+            if (input[0] == BOM) {
+                inputPosition = 1;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Split the line on commas outside quotes, compacting each field over the same buffer
+     */
+    private void tokenize(int length) {
+        fieldCount = 0;
+        int write = 0;
+        int start = 0;
+        boolean quoted = false;
+        for (int read = 0; read < length; read++) {
+            char c = line[read];
+            if (c == '"') {
+                if (quoted && read + 1 < length && line[read + 1] == '"') {
+                    line[write++] = '"';
+                    read++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                addField(start, write);
+                start = write;
+            } else {
+                line[write++] = c;
+            }
+        }
+        addField(start, write);
+    }
+
+    private void addField(int start, int end) {
+        while (start < end && line[start] <= ' ') {
+            start++;
+        }
+        while (end > start && line[end - 1] <= ' ') {
+            end--;
+        }
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private static int parseInteger(char[] chars, int from, int to) {
+        from = skipQuotesAndWhitespace(chars, from, to);
+        to = trimQuotesAndWhitespace(chars, from, to);
+        if (from == to) {
+            return 0;
+        }
+
+        boolean negative = chars[from] == '-';
+        int i = negative || chars[from] == '+' ? from + 1 : from;
+        // Up to nine digits cannot overflow an int
+        if (i == to || to - i > 9) {
+            return parseIntegerSlow(chars, from, to);
+        }
+        int value = 0;
+        for (; i < to; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return parseIntegerSlow(chars, from, to);
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private static int parseIntegerSlow(char[] chars, int from, int to) {
+        String value = strip(chars, from, to, "\"").trim();
+        try {
+            // Spreadsheet numbers arrive as decimals such as 12.0; the fraction is dropped, as a numeric cell read as int
+            return new BigDecimal(value).setScale(0, RoundingMode.DOWN).intValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + value);
+        }
+    }
+
+    private static BigDecimal parseAmount(char[] chars, int from, int to) {
+        from = skipQuotesAndWhitespace(chars, from, to);
+        to = trimQuotesAndWhitespace(chars, from, to);
+
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        boolean negative = false;
+        for (int i = from; i < to; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                // Up to eighteen digits cannot overflow a long
+                if (++digits > 18) {
+                    return parseAmountSlow(chars, from, to);
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else if (c == '-' && digits == 0 && scale < 0 && !negative) {
+                negative = true;
+            } else if (c != '$' && c != ',' && c != '"') {
+                return parseAmountSlow(chars, from, to);
+            }
+        }
+        if (digits == 0) {
+            return negative || scale >= 0 ? parseAmountSlow(chars, from, to) : BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    private static BigDecimal parseAmountSlow(char[] chars, int from, int to) {
+        try {
+            String value = strip(chars, from, to, "\"$,").trim();
+            return value.isEmpty() ? BigDecimal.ZERO : new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return BigDecimal.ZERO;
+        }
+    }
+
+    private static LocalDate parseDate(char[] chars, int from, int to) {
+        from = skipQuotesAndWhitespace(chars, from, to);
+        to = trimQuotesAndWhitespace(chars, from, to);
+
+        int i = from;
+        int month = 0;
+        int monthDigits = 0;
+        while (i < to && chars[i] >= '0' && chars[i] <= '9' && monthDigits < 2) {
+            month = month * 10 + (chars[i++] - '0');
+            monthDigits++;
+        }
+        int day = 0;
+        int dayDigits = 0;
+        if (i < to && chars[i] == '/') {
+            i++;
+            while (i < to && chars[i] >= '0' && chars[i] <= '9' && dayDigits < 2) {
+                day = day * 10 + (chars[i++] - '0');
+                dayDigits++;
+            }
+        }
+        int year = 0;
+        int yearDigits = 0;
+        if (i < to && chars[i] == '/') {
+            i++;
+            while (i < to && chars[i] >= '0' && chars[i] <= '9') {
+                year = year * 10 + (chars[i++] - '0');
+                yearDigits++;
+            }
+        }
+
+        // Anything unusual (including days past the end of the month) takes the formatter's path
+        if (i != to || monthDigits == 0 || dayDigits == 0 || yearDigits != 4 || year == 0
+                || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+            return parseDateSlow(chars, from, to);
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    private static LocalDate parseDateSlow(char[] chars, int from, int to) {
+        String value = strip(chars, from, to, "\"");
+        try {
+            return LocalDate.parse(value, DATE_FORMATTER);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid date format: " + value);
+        }
+    }
+
+    private static int skipQuotesAndWhitespace(char[] chars, int from, int to) {
+        while (from < to && (chars[from] <= ' ' || chars[from] == '"')) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimQuotesAndWhitespace(char[] chars, int from, int to) {
+        while (to > from && (chars[to - 1] <= ' ' || chars[to - 1] == '"')) {
+            to--;
+        }
+        return to;
+    }
+
+    private static String strip(char[] chars, int from, int to, String remove) {
+        StringBuilder value = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            if (remove.indexOf(chars[i]) < 0) {
+                value.append(chars[i]);
+            }
+        }
+        return value.toString();
+    }
+}
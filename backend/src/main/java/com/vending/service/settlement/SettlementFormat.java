@@ -0,0 +1,27 @@
+package com.vending.service.settlement;
+
+/**
+ * Layout of one payment processor's settlement export.
+ *
+ * Formats are Spring beans; {@link SettlementFormatRegistry} picks the first one whose
+ * {@link #matches} accepts the file's header row, then every data row of that file goes through
+ * the {@link #parser} built from that header while it streams into the import. Register a new
+ * bean to support another processor.
+ */
+public interface SettlementFormat {
+
+    /**
+     * Identifier stored on each imported record; part of the record's natural key
+     */
+    String getName();
+
+    /**
+     * Whether a header row belongs to this format
+     */
+    boolean matches(SettlementRow header);
+
+    /**
+     * Row parser for one file; the header lets a format locate optional columns
+     */
+    SettlementRowParser parser(SettlementRow header);
+}
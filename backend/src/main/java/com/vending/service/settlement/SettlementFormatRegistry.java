@@ -0,0 +1,28 @@
+package com.vending.service.settlement;
+
+import com.vending.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Detects the settlement format of an import from its header row
+ */
+@Component
+@RequiredArgsConstructor
+public class SettlementFormatRegistry {
+
+    private final List<SettlementFormat> formats;
+
+    public SettlementFormat detect(SettlementRow header) {
+        for (SettlementFormat format : formats) {
+            if (format.matches(header)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("Unrecognized settlement file header. Supported formats: "
+                + formats.stream().map(SettlementFormat::getName).collect(Collectors.joining(", ")));
+    }
+}
@@ -0,0 +1,42 @@
+package com.vending.service.settlement;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One row of a settlement export, read field by field. Implementations may reuse their buffers,
+ * so values must be read before the import moves to the next row.
+ */
+public interface SettlementRow {
+
+    int fieldCount();
+
+    /**
+     * Text of a field with surrounding quotes and whitespace removed
+     */
+    String field(int index);
+
+    /**
+     * True when the row has no content
+     */
+    boolean isBlank();
+
+    /**
+     * Integer value of a field; empty fields read as 0 and decimals are truncated
+     *
+     * @throws IllegalArgumentException if the field is not a number or does not fit an int
+     */
+    int intField(int index);
+
+    /**
+     * Amount value of a field, ignoring {@code $} and thousands separators; empty or invalid fields read as zero
+     */
+    BigDecimal amountField(int index);
+
+    /**
+     * Date value of a field in {@code M/d/yyyy} form
+     *
+     * @throws IllegalArgumentException if the field is not a valid date
+     */
+    LocalDate dateField(int index);
+}
@@ -0,0 +1,18 @@
+package com.vending.service.settlement;
+
+import com.vending.entity.SalesRecord;
+
+/**
+ * Maps the data rows of one settlement file, created by {@link SettlementFormat#parser} from its header
+ */
+@FunctionalInterface
+public interface SettlementRowParser {
+
+    /**
+     * Map a data row to a record holding the settlement date, totals and, when the export is per
+     * terminal, the POS serial number. The import fills in source, format, file name and machine.
+     *
+     * @throws IllegalArgumentException if the row cannot be read; the row is rejected
+     */
+    SalesRecord parse(SettlementRow row);
+}
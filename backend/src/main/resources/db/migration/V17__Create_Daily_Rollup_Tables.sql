@@ -0,0 +1,89 @@
+-- V17__Create_Daily_Rollup_Tables.sql
+-- Daily rollups for analytics. Rows are recomputed per day whenever a restocking log
+-- or procurement batch is written, and can be rebuilt from the raw tables at any time.
+
+-- Procurement totals per purchase day
+CREATE TABLE daily_procurement_metrics (
+    metric_date DATE PRIMARY KEY,
+    batch_count INT NOT NULL DEFAULT 0,
+    subtotal DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+    total_hst DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+    total_amount DECIMAL(14, 2) NOT NULL DEFAULT 0.00
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Restocking activity per day and machine
+CREATE TABLE daily_machine_metrics (
+    metric_date DATE NOT NULL,
+    machine_id BINARY(16) NOT NULL,
+    restock_count INT NOT NULL DEFAULT 0,
+    cash_collected DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+    items_restocked INT NOT NULL DEFAULT 0,
+    maintenance_count INT NOT NULL DEFAULT 0,
+    total_products_sum INT NOT NULL DEFAULT 0,
+    low_stock_sum INT NOT NULL DEFAULT 0,
+    out_of_stock_sum INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (metric_date, machine_id),
+    FOREIGN KEY (machine_id) REFERENCES vending_machines(id) ON DELETE CASCADE,
+    INDEX idx_dmm_machine_date (machine_id, metric_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Restocked and procured quantities per day and product
+CREATE TABLE daily_product_metrics (
+    metric_date DATE NOT NULL,
+    product_id BINARY(16) NOT NULL,
+    restocked_quantity INT NOT NULL DEFAULT 0,
+    procured_quantity INT NOT NULL DEFAULT 0,
+    procurement_cost DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+    PRIMARY KEY (metric_date, product_id),
+    FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE,
+    INDEX idx_dpm_product_date (product_id, metric_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Initial population from existing history
+INSERT INTO daily_procurement_metrics (metric_date, batch_count, subtotal, total_hst, total_amount)
+SELECT DATE(pb.purchase_date),
+       COUNT(*),
+       COALESCE(SUM(t.subtotal), 0),
+       COALESCE(SUM(t.hst), 0),
+       COALESCE(SUM(t.subtotal + t.hst), 0)
+FROM procurement_batches pb
+LEFT JOIN (
+    SELECT pi.batch_id,
+           SUM(pi.unit_cost * pi.quantity) AS subtotal,
+           SUM(COALESCE(pi.hst_amount, 0)) AS hst
+    FROM procurement_items pi
+    GROUP BY pi.batch_id
+) t ON t.batch_id = pb.id
+GROUP BY DATE(pb.purchase_date);
+
+INSERT INTO daily_machine_metrics (metric_date, machine_id, restock_count, cash_collected, items_restocked,
+                                   maintenance_count, total_products_sum, low_stock_sum, out_of_stock_sum)
+SELECT DATE(rl.timestamp),
+       rl.machine_id,
+       COUNT(*),
+       COALESCE(SUM(rl.cash_collected), 0),
+       COALESCE(SUM(t.quantity), 0),
+       SUM(CASE WHEN rl.maintenance_performed THEN 1 ELSE 0 END),
+       COALESCE(SUM(rl.total_products), 0),
+       COALESCE(SUM(rl.low_stock_products), 0),
+       COALESCE(SUM(rl.out_of_stock_products), 0)
+FROM restocking_logs rl
+LEFT JOIN (
+    SELECT ri.restocking_log_id, SUM(ri.quantity) AS quantity
+    FROM restock_items ri
+    GROUP BY ri.restocking_log_id
+) t ON t.restocking_log_id = rl.id
+GROUP BY DATE(rl.timestamp), rl.machine_id;
+
+INSERT INTO daily_product_metrics (metric_date, product_id, restocked_quantity, procured_quantity, procurement_cost)
+SELECT x.metric_date, x.product_id, SUM(x.restocked), SUM(x.procured), SUM(x.cost)
+FROM (
+    SELECT DATE(rl.timestamp) AS metric_date, ri.product_id, ri.quantity AS restocked, 0 AS procured, 0 AS cost
+    FROM restock_items ri
+    JOIN restocking_logs rl ON rl.id = ri.restocking_log_id
+    UNION ALL
+    SELECT DATE(pb.purchase_date), pi.product_id, 0, pi.quantity, pi.unit_cost * pi.quantity
+    FROM procurement_items pi
+    JOIN procurement_batches pb ON pb.id = pi.batch_id
+) x
+GROUP BY x.metric_date, x.product_id;
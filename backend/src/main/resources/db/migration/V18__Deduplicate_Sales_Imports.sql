@@ -0,0 +1,74 @@
+-- V18__Deduplicate_Sales_Imports.sql
+-- Sales imports now upsert on the settlement date and skip files that were already imported.
+-- The source (CSV or EXCEL) is only the file type, so CSV and Excel copies of the same settlement
+-- are one row, not two.
+
+-- Re-imports left copies of the same settlement line. Copies whose values all agree are merged,
+-- keeping the most recently created row.
+DELETE older FROM sales_records older
+JOIN sales_records newer
+    ON newer.settlement_date = older.settlement_date
+    AND newer.number_of_batches <=> older.number_of_batches
+    AND newer.number_completed <=> older.number_completed
+    AND newer.number_sur <=> older.number_sur
+    AND newer.number_incomplete <=> older.number_incomplete
+    AND newer.approved_amount <=> older.approved_amount
+    AND newer.fee_amount <=> older.fee_amount
+    AND (newer.created_at > older.created_at
+         OR (newer.created_at = older.created_at AND newer.id > older.id));
+
+-- Rows that still share a day disagree, and which one is right can't be told here. All but the
+-- newest are set aside, unchanged, in sales_record_conflicts for review instead of being dropped.
+CREATE TABLE sales_record_conflicts (
+    id BINARY(16) PRIMARY KEY,
+    kept_record_id BINARY(16) NOT NULL,
+    settlement_date DATE NOT NULL,
+    source VARCHAR(50) NOT NULL,
+    number_of_batches INT,
+    number_completed INT,
+    number_sur INT,
+    number_incomplete INT,
+    approved_amount DECIMAL(12, 2),
+    fee_amount DECIMAL(12, 2),
+    file_name VARCHAR(255),
+    created_at DATETIME NOT NULL,
+    updated_at DATETIME,
+    detected_at DATETIME NOT NULL,
+    INDEX idx_sales_conflict_date (settlement_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO sales_record_conflicts (id, kept_record_id, settlement_date, source, number_of_batches,
+    number_completed, number_sur, number_incomplete, approved_amount, fee_amount, file_name,
+    created_at, updated_at, detected_at)
+SELECT older.id, newest.id, older.settlement_date, older.source, older.number_of_batches,
+    older.number_completed, older.number_sur, older.number_incomplete, older.approved_amount,
+    older.fee_amount, older.file_name, older.created_at, older.updated_at, NOW()
+FROM sales_records older
+JOIN sales_records newest
+    ON newest.settlement_date = older.settlement_date
+    AND newest.id <> older.id
+    AND NOT EXISTS (
+        SELECT 1 FROM sales_records newer
+        WHERE newer.settlement_date = newest.settlement_date
+            AND (newer.created_at > newest.created_at
+                 OR (newer.created_at = newest.created_at AND newer.id > newest.id)));
+
+DELETE FROM sales_records WHERE id IN (SELECT id FROM sales_record_conflicts);
+
+ALTER TABLE sales_records
+    ADD CONSTRAINT uk_sales_settlement UNIQUE (settlement_date);
+
+-- One row per successfully imported file, keyed by the SHA-256 of its content
+CREATE TABLE sales_import_files (
+    id BINARY(16) PRIMARY KEY,
+    content_hash CHAR(64) NOT NULL,
+    source VARCHAR(50) NOT NULL,
+    file_name VARCHAR(255),
+    total_rows INT NOT NULL DEFAULT 0,
+    imported_count INT NOT NULL DEFAULT 0,
+    updated_count INT NOT NULL DEFAULT 0,
+    unchanged_count INT NOT NULL DEFAULT 0,
+    rejected_count INT NOT NULL DEFAULT 0,
+    imported_at DATETIME NOT NULL,
+    CONSTRAINT uk_sales_import_hash UNIQUE (content_hash)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,10 @@
+-- V19__Add_Sales_Record_Format.sql
+-- Sales imports detect the processor's settlement layout from the header row; records keep the
+-- layout so exports from different processors for the same day do not overwrite each other
+
+ALTER TABLE sales_records
+    ADD COLUMN format VARCHAR(50) NOT NULL DEFAULT 'DAILY_SETTLEMENT' AFTER source;
+
+ALTER TABLE sales_records
+    DROP INDEX uk_sales_settlement,
+    ADD CONSTRAINT uk_sales_settlement_format UNIQUE (settlement_date, format);
@@ -0,0 +1,7 @@
+-- V20__Add_Sales_Records_Keyset_Index.sql
+-- The sales listing pages by (settlement_date DESC, id DESC); this index serves both the order
+-- and the cursor range, and makes the single-column settlement date index redundant
+
+CREATE INDEX idx_sales_settlement_date_id ON sales_records (settlement_date, id);
+
+DROP INDEX idx_settlement_date ON sales_records;
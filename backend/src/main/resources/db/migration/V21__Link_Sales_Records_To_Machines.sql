@@ -0,0 +1,17 @@
+-- V21__Link_Sales_Records_To_Machines.sql
+-- Settlement lines from per-terminal exports carry the POS serial number and are linked to the
+-- machine with that serial; their approved amounts roll up into per-machine cashless revenue
+
+ALTER TABLE sales_records
+    ADD COLUMN pos_serial_number VARCHAR(100) NOT NULL DEFAULT '' AFTER format,
+    ADD COLUMN machine_id BINARY(16) NULL AFTER pos_serial_number,
+    ADD CONSTRAINT fk_sales_records_machine FOREIGN KEY (machine_id) REFERENCES vending_machines(id) ON DELETE SET NULL,
+    ADD INDEX idx_sales_machine_date (machine_id, settlement_date);
+
+-- One row per day and terminal; the serial is empty for exports that are not per terminal
+ALTER TABLE sales_records
+    DROP INDEX uk_sales_settlement_format,
+    ADD CONSTRAINT uk_sales_settlement_terminal UNIQUE (settlement_date, format, pos_serial_number);
+
+ALTER TABLE daily_machine_metrics
+    ADD COLUMN cashless_revenue DECIMAL(14, 2) NOT NULL DEFAULT 0.00;
@@ -0,0 +1,15 @@
+-- V22__Backfill_Procurement_Batch_Totals.sql
+-- Batch totals are now maintained on write instead of being recomputed from the items on every
+-- load; recompute the stored columns once so rows written before HST was applied are correct
+
+UPDATE procurement_batches pb
+LEFT JOIN (
+    SELECT batch_id,
+           SUM(unit_cost * quantity) AS subtotal,
+           SUM(COALESCE(hst_amount, 0)) AS total_hst
+    FROM procurement_items
+    GROUP BY batch_id
+) t ON t.batch_id = pb.id
+SET pb.subtotal = COALESCE(t.subtotal, 0),
+    pb.total_hst = COALESCE(t.total_hst, 0),
+    pb.total_amount = COALESCE(t.subtotal, 0) + COALESCE(t.total_hst, 0);
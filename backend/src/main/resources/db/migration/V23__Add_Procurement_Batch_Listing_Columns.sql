@@ -0,0 +1,18 @@
+-- V23__Add_Procurement_Batch_Listing_Columns.sql
+-- The procurement listing reads batch headers only; store the item count with the other totals
+-- and index the (purchase_date DESC, id DESC) keyset order
+
+ALTER TABLE procurement_batches
+    ADD COLUMN total_items_count INT NOT NULL DEFAULT 0 AFTER total_amount;
+
+UPDATE procurement_batches pb
+JOIN (
+    SELECT batch_id, SUM(quantity) AS total_items_count
+    FROM procurement_items
+    GROUP BY batch_id
+) t ON t.batch_id = pb.id
+SET pb.total_items_count = t.total_items_count;
+
+CREATE INDEX idx_batch_purchase_date_id ON procurement_batches (purchase_date, id);
+
+DROP INDEX idx_batch_purchase_date ON procurement_batches;
@@ -0,0 +1,50 @@
+-- V24__Create_Stock_Ledger.sql
+-- Every change to warehouse stock is appended to stock_movements and products.current_stock is
+-- their running sum. stock_snapshots holds each product's stock at the end of a day, written
+-- nightly, so stock at a point in time only needs the movements after the nearest snapshot.
+
+CREATE TABLE stock_movements (
+    id BINARY(16) PRIMARY KEY,
+    product_id BINARY(16) NOT NULL,
+    movement_type VARCHAR(30) NOT NULL,
+    quantity INT NOT NULL,
+    occurred_at DATETIME NOT NULL,
+    reference_id BINARY(16) NULL,
+    notes VARCHAR(500),
+    performed_by VARCHAR(255),
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE,
+    INDEX idx_movement_product_time (product_id, occurred_at),
+    INDEX idx_movement_reference (reference_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE stock_snapshots (
+    product_id BINARY(16) NOT NULL,
+    snapshot_date DATE NOT NULL,
+    stock INT NOT NULL,
+    PRIMARY KEY (product_id, snapshot_date),
+    FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Receipts for existing procurement batches, so later edits can reverse them. They keep their
+-- purchase dates for cost reporting, but only receipts are backfilled: stock issued to machines
+-- before now was never recorded, so stock at a time before this migration can't be reconstructed
+-- and point-in-time queries start from the ledger's first recorded movement (its created_at).
+INSERT INTO stock_movements (id, product_id, movement_type, quantity, occurred_at, reference_id, notes, performed_by)
+SELECT UNHEX(REPLACE(UUID(), '-', '')), pi.product_id, 'RECEIPT', SUM(pi.quantity * pi.pack_quantity),
+       pb.purchase_date, pb.id, 'Procurement batch', 'system'
+FROM procurement_items pi
+JOIN procurement_batches pb ON pb.id = pi.batch_id
+GROUP BY pi.product_id, pb.id, pb.purchase_date;
+
+-- Opening balance: whatever of the current stock the receipts don't account for, as of now
+INSERT INTO stock_movements (id, product_id, movement_type, quantity, occurred_at, notes, performed_by)
+SELECT UNHEX(REPLACE(UUID(), '-', '')), p.id, 'ADJUSTMENT', p.current_stock - COALESCE(r.received, 0),
+       NOW(), 'Opening balance', 'system'
+FROM products p
+LEFT JOIN (
+    SELECT product_id, SUM(quantity) AS received
+    FROM stock_movements
+    GROUP BY product_id
+) r ON r.product_id = p.id
+WHERE p.current_stock <> COALESCE(r.received, 0);
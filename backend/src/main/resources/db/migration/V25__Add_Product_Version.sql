@@ -0,0 +1,6 @@
+-- V25__Add_Product_Version.sql
+-- Optimistic locking for products. Stock movements bump the version too, so a product edit
+-- or stock removal based on an older read fails its version check and is retried.
+
+ALTER TABLE products
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
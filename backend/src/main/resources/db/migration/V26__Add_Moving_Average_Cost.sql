@@ -0,0 +1,34 @@
+-- V26__Add_Moving_Average_Cost.sql
+-- products.average_cost is the moving-average cost of one unit in stock, moved by each receipt.
+-- stock_movements.unit_cost is what one unit of a movement cost: the purchase cost for receipts,
+-- the product's average cost at the time for everything else.
+
+ALTER TABLE products ADD COLUMN average_cost DECIMAL(12,4) NOT NULL DEFAULT 0;
+ALTER TABLE stock_movements ADD COLUMN unit_cost DECIMAL(12,4) NULL;
+
+-- Start each product at the average of everything procured so far
+UPDATE products p
+JOIN (
+    SELECT product_id, SUM(unit_cost * quantity) / SUM(quantity * pack_quantity) AS average_cost
+    FROM procurement_items
+    GROUP BY product_id
+) c ON c.product_id = p.id
+SET p.average_cost = c.average_cost;
+
+-- Receipts were recorded per batch and product; cost them the same way
+UPDATE stock_movements m
+JOIN (
+    SELECT batch_id, product_id,
+           ROUND(SUM(unit_cost * quantity) / SUM(quantity * pack_quantity), 4) AS unit_cost
+    FROM procurement_items
+    GROUP BY batch_id, product_id
+) c ON c.batch_id = m.reference_id AND c.product_id = m.product_id
+SET m.unit_cost = c.unit_cost
+WHERE m.movement_type = 'RECEIPT';
+
+UPDATE stock_movements m
+JOIN products p ON p.id = m.product_id
+SET m.unit_cost = p.average_cost
+WHERE m.unit_cost IS NULL;
+
+ALTER TABLE stock_movements MODIFY unit_cost DECIMAL(12,4) NOT NULL;
@@ -0,0 +1,7 @@
+-- V27__Add_Vendor_Purchase_Stats_Index.sql
+-- Vendor purchase statistics are one GROUP BY vendor_id over procurement_batches; cover the
+-- columns it reads so it is answered from the index. It also serves the vendor_id foreign key.
+
+CREATE INDEX idx_batch_vendor_stats ON procurement_batches (vendor_id, purchase_date, total_amount);
+
+DROP INDEX idx_batch_vendor ON procurement_batches;
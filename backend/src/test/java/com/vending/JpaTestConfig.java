@@ -0,0 +1,34 @@
+package com.vending;
+
+import com.vending.config.AppCacheProperties;
+import com.vending.config.CacheConfig;
+import com.vending.service.DailyAnalyticsCache;
+import com.vending.service.DailyRollupService;
+import com.vending.service.PosSerialIndex;
+import com.vending.service.StockLedgerService;
+import com.vending.service.StockMutationRetry;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Persistence, the rollup and stock ledger services and the caches they use, without the web and
+ * security layers. Run with the {@code test} profile for an in-memory database.
+ */
+@Configuration
+@EnableAutoConfiguration
+@EntityScan("com.vending.entity")
+@EnableJpaRepositories("com.vending.repository")
+@Import({
+        DailyRollupService.class,
+        DailyAnalyticsCache.class,
+        PosSerialIndex.class,
+        StockLedgerService.class,
+        StockMutationRetry.class,
+        CacheConfig.class,
+        AppCacheProperties.class
+})
+public class JpaTestConfig {
+}
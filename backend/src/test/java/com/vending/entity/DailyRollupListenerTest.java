@@ -0,0 +1,210 @@
+package com.vending.entity;
+
+import com.vending.JpaTestConfig;
+import com.vending.repository.DailyMachineMetricRepository;
+import com.vending.repository.DailyProductMetricRepository;
+import com.vending.repository.ProductRepository;
+import com.vending.repository.RestockingLogRepository;
+import com.vending.repository.SalesRecordRepository;
+import com.vending.repository.VendingMachineRepository;
+import com.vending.service.DailyRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(classes = JpaTestConfig.class)
+@ActiveProfiles("test")
+class DailyRollupListenerTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    private static final LocalDate LAST_DAY = LocalDate.of(2025, 1, 31);
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private VendingMachineRepository machineRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RestockingLogRepository restockingLogRepository;
+
+    @Autowired
+    private SalesRecordRepository salesRecordRepository;
+
+    @Autowired
+    private DailyMachineMetricRepository dailyMachineMetricRepository;
+
+    @Autowired
+    private DailyProductMetricRepository dailyProductMetricRepository;
+
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    private VendingMachine machine;
+    private Product product;
+
+    @BeforeEach
+    void createMachineAndProduct() {
+        String suffix = UUID.randomUUID().toString();
+        machine = machineRepository.save(VendingMachine.builder()
+                .machineId("VM-" + suffix)
+                .brand("Brand")
+                .model("Model")
+                .location(Location.builder().address("1 Main St").build())
+                .build());
+        product = productRepository.save(Product.builder()
+                .name("Chips " + suffix)
+                .category("Snacks")
+                .build());
+    }
+
+    @Test
+    void restockingLogChangesAdjustTheirDays() {
+        UUID logId = transactionTemplate.execute(status -> {
+            RestockingLog log = RestockingLog.builder()
+                    .machine(machine)
+                    .timestamp(LocalDateTime.of(2025, 1, 10, 9, 0))
+                    .cashCollected(new BigDecimal("5.00"))
+                    .build();
+            log.addRestockItem(RestockItem.builder().product(product).quantity(3).build());
+            log.addRestockItem(RestockItem.builder().product(product).quantity(4).build());
+            return restockingLogRepository.save(log).getId();
+        });
+        assertThat(machineDays()).containsExactly(Map.entry(day(10), "1/5.00/7/0.00"));
+        assertThat(productDays()).containsExactly(Map.entry(day(10), 7));
+
+        transactionTemplate.executeWithoutResult(status ->
+                restockingLogRepository.findById(logId).orElseThrow().getItemsRestocked().get(0).setQuantity(10));
+        assertThat(machineDays()).containsExactly(Map.entry(day(10), "1/5.00/14/0.00"));
+        assertThat(productDays()).containsExactly(Map.entry(day(10), 14));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            RestockingLog log = restockingLogRepository.findById(logId).orElseThrow();
+            log.removeRestockItem(log.getItemsRestocked().get(0));
+        });
+        assertThat(machineDays()).containsExactly(Map.entry(day(10), "1/5.00/4/0.00"));
+        assertThat(productDays()).containsExactly(Map.entry(day(10), 4));
+
+        transactionTemplate.executeWithoutResult(status ->
+                restockingLogRepository.findById(logId).orElseThrow().setTimestamp(LocalDateTime.of(2025, 1, 12, 9, 0)));
+        assertThat(machineDays()).containsExactly(Map.entry(day(12), "1/5.00/4/0.00"));
+        assertThat(productDays()).containsExactly(Map.entry(day(12), 4));
+
+        transactionTemplate.executeWithoutResult(status -> restockingLogRepository.deleteById(logId));
+        assertThat(machineDays()).isEmpty();
+        assertThat(productDays()).isEmpty();
+
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void salesRecordChangesAdjustCashlessRevenue() {
+        UUID recordId = salesRecordRepository.save(SalesRecord.builder()
+                .settlementDate(day(15))
+                .source("CSV")
+                .format("daily")
+                .posSerialNumber("POS-" + machine.getMachineId())
+                .machineId(machine.getId())
+                .approvedAmount(new BigDecimal("7.25"))
+                .build()).getId();
+        assertThat(machineDays()).containsExactly(Map.entry(day(15), "0/0.00/0/7.25"));
+
+        transactionTemplate.executeWithoutResult(status ->
+                salesRecordRepository.findById(recordId).orElseThrow().setApprovedAmount(new BigDecimal("9.00")));
+        assertThat(machineDays()).containsExactly(Map.entry(day(15), "0/0.00/0/9.00"));
+
+        transactionTemplate.executeWithoutResult(status ->
+                salesRecordRepository.findById(recordId).orElseThrow().setSettlementDate(day(16)));
+        assertThat(machineDays()).containsExactly(Map.entry(day(16), "0/0.00/0/9.00"));
+
+        transactionTemplate.executeWithoutResult(status ->
+                salesRecordRepository.findById(recordId).orElseThrow().setMachineId(null));
+        assertThat(machineDays()).isEmpty();
+
+        transactionTemplate.executeWithoutResult(status ->
+                salesRecordRepository.findById(recordId).orElseThrow().setMachineId(machine.getId()));
+        assertThat(machineDays()).containsExactly(Map.entry(day(16), "0/0.00/0/9.00"));
+
+        transactionTemplate.executeWithoutResult(status -> salesRecordRepository.deleteById(recordId));
+        assertThat(machineDays()).isEmpty();
+
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void rolledBackChangesLeaveTheRollupsAlone() {
+        restockingLogRepository.save(RestockingLog.builder()
+                .machine(machine)
+                .timestamp(LocalDateTime.of(2025, 1, 20, 9, 0))
+                .cashCollected(new BigDecimal("5.00"))
+                .build());
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            restockingLogRepository.findAll().stream()
+                    .filter(log -> log.getMachine().getId().equals(machine.getId()))
+                    .forEach(log -> log.setCashCollected(BigDecimal.TEN));
+            restockingLogRepository.flush();
+            throw new IllegalStateException("rolled back");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(machineDays()).containsExactly(Map.entry(day(20), "1/5.00/0/0.00"));
+    }
+
+    private static LocalDate day(int dayOfMonth) {
+        return FIRST_DAY.withDayOfMonth(dayOfMonth);
+    }
+
+    /**
+     * This machine's days with any activity, as restocks/cash collected/items restocked/cashless revenue
+     */
+    private Map<LocalDate, String> machineDays() {
+        Map<LocalDate, String> days = new TreeMap<>();
+        dailyMachineMetricRepository.findByMetricDateBetween(FIRST_DAY, LAST_DAY).stream()
+                .filter(metric -> metric.getMachineId().equals(machine.getId()))
+                .filter(metric -> metric.getRestockCount() != 0 || metric.getItemsRestocked() != 0
+                        || metric.getCashCollected().signum() != 0 || metric.getCashlessRevenue().signum() != 0)
+                .forEach(metric -> days.put(metric.getMetricDate(), metric.getRestockCount()
+                        + "/" + metric.getCashCollected().setScale(2)
+                        + "/" + metric.getItemsRestocked()
+                        + "/" + metric.getCashlessRevenue().setScale(2)));
+        return days;
+    }
+
+    /**
+     * This product's days with units restocked
+     */
+    private Map<LocalDate, Integer> productDays() {
+        Map<LocalDate, Integer> days = new TreeMap<>();
+        dailyProductMetricRepository.findByMetricDateBetween(FIRST_DAY, LAST_DAY).stream()
+                .filter(metric -> metric.getProductId().equals(product.getId()))
+                .filter(metric -> metric.getRestockedQuantity() != 0)
+                .forEach(metric -> days.put(metric.getMetricDate(), metric.getRestockedQuantity()));
+        return days;
+    }
+
+    private void assertMatchesRebuild() {
+        Map<LocalDate, String> machineDays = machineDays();
+        Map<LocalDate, Integer> productDays = productDays();
+
+        dailyRollupService.rebuild(FIRST_DAY, LAST_DAY);
+
+        assertThat(machineDays()).isEqualTo(machineDays);
+        assertThat(productDays()).isEqualTo(productDays);
+    }
+}
@@ -0,0 +1,50 @@
+package com.vending.service;
+
+import com.vending.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsThroughAnUrlSafeToken() {
+        KeysetCursor cursor = new KeysetCursor("2025-10-01T09:30:15.700", UUID.randomUUID());
+
+        String token = cursor.encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(KeysetCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsSortValuesContainingTheSeparator() {
+        KeysetCursor cursor = new KeysetCursor("Vendor | Co. ✓", UUID.randomUUID());
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsAnEmptySortValue() {
+        KeysetCursor cursor = new KeysetCursor("", UUID.randomUUID());
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        String noSeparator = Base64.getUrlEncoder().encodeToString("abc".getBytes(StandardCharsets.UTF_8));
+        String badId = Base64.getUrlEncoder().encodeToString("abc|not-a-uuid".getBytes(StandardCharsets.UTF_8));
+
+        for (String token : new String[] {"***", noSeparator, badId}) {
+            assertThatThrownBy(() -> KeysetCursor.decode(token))
+                    .isInstanceOf(BadRequestException.class)
+                    .hasMessage("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.vending.service;
+
+import com.vending.JpaTestConfig;
+import com.vending.entity.Product;
+import com.vending.entity.StockMovement;
+import com.vending.entity.StockMovement.MovementType;
+import com.vending.repository.ProductRepository;
+import com.vending.repository.StockMovementRepository;
+import com.vending.repository.projection.StockMovementTotal;
+import com.vending.service.StockLedgerService.ReceiptLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(classes = JpaTestConfig.class)
+@ActiveProfiles("test")
+class StockLedgerServiceTest {
+
+    private static final LocalDateTime PURCHASED = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    private UUID productId;
+
+    @BeforeEach
+    void createProduct() {
+        productId = productRepository.save(Product.builder()
+                .name("Cola " + UUID.randomUUID())
+                .category("Drinks")
+                .build()).getId();
+    }
+
+    @Test
+    void receiptsMoveStockAndAverageCost() {
+        stockLedgerService.syncReceipts(UUID.randomUUID(), PURCHASED, List.of(line(10, "2.00")), "first");
+        stockLedgerService.syncReceipts(UUID.randomUUID(), PURCHASED, List.of(line(10, "4.00")), "second");
+
+        assertStock(20, "3.0000");
+    }
+
+    @Test
+    void editingABatchAppendsOnlyTheDifference() {
+        UUID batchId = UUID.randomUUID();
+        stockLedgerService.syncReceipts(batchId, PURCHASED, List.of(line(10, "2.00")), "created");
+        stockLedgerService.syncReceipts(UUID.randomUUID(), PURCHASED, List.of(line(10, "4.00")), "other");
+
+        stockLedgerService.syncReceipts(batchId, PURCHASED, List.of(line(10, "2.00")), "unchanged");
+        assertThat(movements()).hasSize(2);
+
+        // Six units fewer: reversed at the cost they came in at, which raises the average
+        stockLedgerService.syncReceipts(batchId, PURCHASED, List.of(line(4, "2.00")), "reduced");
+        assertThat(movements())
+                .extracting(StockMovement::getQuantity, StockMovement::getUnitCost)
+                .containsExactlyInAnyOrder(
+                        tuple(10, new BigDecimal("2.0000")),
+                        tuple(10, new BigDecimal("4.0000")),
+                        tuple(-6, new BigDecimal("2.0000")));
+        assertStock(14, "3.4286");
+        assertThat(recorded(batchId))
+                .extracting(StockMovementTotal::quantity, StockMovementTotal::unitCost)
+                .containsExactly(tuple(4L, new BigDecimal("2.0000")));
+    }
+
+    @Test
+    void changingTheUnitCostReversesTheOldCostAndReceivesAtTheNewOne() {
+        UUID batchId = UUID.randomUUID();
+        stockLedgerService.syncReceipts(batchId, PURCHASED, List.of(line(4, "2.00")), "created");
+        stockLedgerService.syncReceipts(UUID.randomUUID(), PURCHASED, List.of(line(10, "4.00")), "other");
+        assertStock(14, "3.4286");
+
+        stockLedgerService.syncReceipts(batchId, PURCHASED, List.of(line(4, "3.00")), "repriced");
+
+        assertStock(14, "3.7143");
+        assertThat(recorded(batchId))
+                .extracting(StockMovementTotal::quantity, StockMovementTotal::unitCost)
+                .containsExactlyInAnyOrder(tuple(0L, new BigDecimal("2.0000")), tuple(4L, new BigDecimal("3.0000")));
+    }
+
+    @Test
+    void movingTheBatchDateReversesAtTheOldDate() {
+        UUID batchId = UUID.randomUUID();
+        stockLedgerService.syncReceipts(batchId, PURCHASED, List.of(line(5, "2.00")), "created");
+
+        stockLedgerService.syncReceipts(batchId, PURCHASED.plusDays(1), List.of(line(5, "2.00")), "moved");
+
+        assertStock(5, "2.0000");
+        assertThat(recorded(batchId))
+                .extracting(StockMovementTotal::occurredAt, StockMovementTotal::quantity)
+                .containsExactlyInAnyOrder(tuple(PURCHASED, 0L), tuple(PURCHASED.plusDays(1), 5L));
+    }
+
+    @Test
+    void deletingABatchReversesAllOfIt() {
+        UUID batchId = UUID.randomUUID();
+        stockLedgerService.syncReceipts(batchId, PURCHASED, List.of(line(4, "3.00")), "created");
+        stockLedgerService.syncReceipts(UUID.randomUUID(), PURCHASED, List.of(line(10, "4.00")), "other");
+
+        stockLedgerService.syncReceipts(batchId, null, List.of(), "deleted");
+
+        assertStock(10, "4.0000");
+        assertThat(recorded(batchId)).extracting(StockMovementTotal::quantity).containsOnly(0L);
+    }
+
+    private ReceiptLine line(int units, String unitCost) {
+        return new ReceiptLine(productId, units, new BigDecimal(unitCost));
+    }
+
+    private void assertStock(int currentStock, String averageCost) {
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertThat(product.getCurrentStock()).isEqualTo(currentStock);
+        assertThat(product.getAverageCost()).isEqualByComparingTo(averageCost);
+    }
+
+    private List<StockMovement> movements() {
+        return stockMovementRepository.findByProductIdOrderByOccurredAtDescIdDesc(productId, Limit.of(50));
+    }
+
+    private List<StockMovementTotal> recorded(UUID batchId) {
+        return stockMovementRepository.sumByReference(batchId, MovementType.RECEIPT);
+    }
+}
@@ -0,0 +1,107 @@
+package com.vending.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockMutationRetryTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final StockMutationRetry retry = new StockMutationRetry(transactionTemplate, meterRegistry, 3, 1, 2);
+
+    @BeforeEach
+    void runCallbacksDirectly() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void retriesConflictsUntilTheOperationSucceeds() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.execute("receipt", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("conflict");
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts).hasValue(3);
+        assertThat(count("stock.mutation.conflicts", "receipt")).isEqualTo(2);
+        assertThat(meterRegistry.find("stock.mutation.exhausted").counter()).isNull();
+    }
+
+    @Test
+    void countsExhaustionAndRethrowsAfterTheLastAttempt() {
+        AtomicInteger attempts = new AtomicInteger();
+        OptimisticLockingFailureException conflict = new OptimisticLockingFailureException("conflict");
+
+        assertThatThrownBy(() -> retry.execute("movement", () -> {
+            attempts.incrementAndGet();
+            throw conflict;
+        })).isSameAs(conflict);
+
+        assertThat(attempts).hasValue(3);
+        assertThat(count("stock.mutation.conflicts", "movement")).isEqualTo(3);
+        assertThat(count("stock.mutation.exhausted", "movement")).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotRetryOtherFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retry.execute("adjustment", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("broken");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(attempts).hasValue(1);
+        assertThat(meterRegistry.find("stock.mutation.conflicts").counter()).isNull();
+    }
+
+    @Test
+    void leavesConflictsInsideACallersTransactionToTheCaller() {
+        AtomicInteger attempts = new AtomicInteger();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThatThrownBy(() -> retry.execute("receipt", () -> {
+                attempts.incrementAndGet();
+                throw new OptimisticLockingFailureException("conflict");
+            })).isInstanceOf(OptimisticLockingFailureException.class);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertThat(attempts).hasValue(1);
+        assertThat(meterRegistry.find("stock.mutation.conflicts").counter()).isNull();
+    }
+
+    @Test
+    void tagsMetricsByOperation() {
+        assertThatThrownBy(() -> retry.execute("receipt", () -> {
+            throw new OptimisticLockingFailureException("conflict");
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(count("stock.mutation.conflicts", "receipt")).isEqualTo(3);
+        assertThat(meterRegistry.find("stock.mutation.conflicts").tag("operation", "movement").counter()).isNull();
+    }
+
+    private double count(String name, String operation) {
+        return meterRegistry.get(name).tag("operation", operation).counter().count();
+    }
+}
@@ -0,0 +1,124 @@
+package com.vending.service.settlement;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SettlementCsvTokenizerTest {
+
+    @Test
+    void splitsQuotedFieldsAndUnescapesQuotes() throws IOException {
+        List<List<String>> rows = readAll("\"Smith, J\",\"say \"\"hi\"\"\",  plain  ,\"\"\n");
+
+        assertThat(rows).containsExactly(List.of("Smith, J", "say \"hi\"", "plain", ""));
+    }
+
+    @Test
+    void readsLfCrlfAndBareCrLineEndings() throws IOException {
+        assertThat(readAll("a,1\nb,2\n")).containsExactly(List.of("a", "1"), List.of("b", "2"));
+        assertThat(readAll("a,1\r\nb,2\r\n")).containsExactly(List.of("a", "1"), List.of("b", "2"));
+        assertThat(readAll("a,1\rb,2\r")).containsExactly(List.of("a", "1"), List.of("b", "2"));
+        assertThat(readAll("a,1\r\rb,2")).containsExactly(List.of("a", "1"), List.of(""), List.of("b", "2"));
+    }
+
+    @Test
+    void readsCrlfSplitAcrossInputBuffers() throws IOException {
+        // The tokenizer reads 8192 chars at a time; put the CR last in the first read
+        String first = "x".repeat(8191);
+        List<List<String>> rows = readAll(first + "\r\nnext\r\n");
+
+        assertThat(rows).containsExactly(List.of(first), List.of("next"));
+    }
+
+    @Test
+    void skipsByteOrderMarkAndGrowsBuffersForLongLines() throws IOException {
+        String longField = "y".repeat(1000);
+        String manyFields = "1,2,3,4,5,6,7,8,9,10,11,12";
+
+        SettlementCsvTokenizer tokenizer = tokenizer("\uFEFFDate," + longField + "\n" + manyFields + "\n");
+
+        assertThat(tokenizer.next()).isTrue();
+        assertThat(tokenizer.field(0)).isEqualTo("Date");
+        assertThat(tokenizer.field(1)).isEqualTo(longField);
+        assertThat(tokenizer.next()).isTrue();
+        assertThat(tokenizer.fieldCount()).isEqualTo(12);
+        assertThat(tokenizer.intField(11)).isEqualTo(12);
+        assertThat(tokenizer.next()).isFalse();
+    }
+
+    @Test
+    void parsesTypedFields() throws IOException {
+        SettlementCsvTokenizer tokenizer = tokenizer("10/1/2025, 12 ,\"$1,234.50\",-0.75,\n");
+
+        assertThat(tokenizer.next()).isTrue();
+        assertThat(tokenizer.dateField(0)).isEqualTo(LocalDate.of(2025, 10, 1));
+        assertThat(tokenizer.intField(1)).isEqualTo(12);
+        assertThat(tokenizer.amountField(2)).isEqualByComparingTo("1234.50");
+        assertThat(tokenizer.amountField(3)).isEqualByComparingTo("-0.75");
+        assertThat(tokenizer.intField(4)).isZero();
+        assertThat(tokenizer.amountField(4)).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void parsesIntegersBeyondTheFastPath() {
+        assertThat(SettlementCsvTokenizer.parseInteger("2147483647")).isEqualTo(Integer.MAX_VALUE);
+        assertThat(SettlementCsvTokenizer.parseInteger("-2147483648")).isEqualTo(Integer.MIN_VALUE);
+        assertThat(SettlementCsvTokenizer.parseInteger("12.0")).isEqualTo(12);
+        assertThat(SettlementCsvTokenizer.parseInteger("12.9")).isEqualTo(12);
+        assertThat(SettlementCsvTokenizer.parseInteger("-3.5")).isEqualTo(-3);
+    }
+
+    @Test
+    void rejectsIntegersThatOverflowOrAreNotNumbers() {
+        assertThatThrownBy(() -> SettlementCsvTokenizer.parseInteger("2147483648"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SettlementCsvTokenizer.parseInteger("99999999999"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SettlementCsvTokenizer.parseInteger("twelve"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid number: twelve");
+    }
+
+    @Test
+    void parsesAmountsBeyondTheFastPath() {
+        assertThat(SettlementCsvTokenizer.parseAmount("$123,456,789,012,345,678.99"))
+                .isEqualByComparingTo("123456789012345678.99");
+        assertThat(SettlementCsvTokenizer.parseAmount("1e3")).isEqualByComparingTo("1000");
+        assertThat(SettlementCsvTokenizer.parseAmount("n/a")).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void parsesDatesThroughTheFormatterWhenUnusual() {
+        assertThat(SettlementCsvTokenizer.parseDate("02/29/2024")).isEqualTo(LocalDate.of(2024, 2, 29));
+        assertThatThrownBy(() -> SettlementCsvTokenizer.parseDate("13/1/2025"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid date format: 13/1/2025");
+        assertThatThrownBy(() -> SettlementCsvTokenizer.parseDate("2025-10-01"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static SettlementCsvTokenizer tokenizer(String content) {
+        return new SettlementCsvTokenizer(new StringReader(content));
+    }
+
+    private static List<List<String>> readAll(String content) throws IOException {
+        SettlementCsvTokenizer tokenizer = tokenizer(content);
+        List<List<String>> rows = new ArrayList<>();
+        while (tokenizer.next()) {
+            List<String> fields = new ArrayList<>();
+            for (int i = 0; i < tokenizer.fieldCount(); i++) {
+                fields.add(tokenizer.field(i));
+            }
+            rows.add(fields);
+        }
+        return rows;
+    }
+}